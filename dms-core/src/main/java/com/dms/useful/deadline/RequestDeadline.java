@@ -0,0 +1,76 @@
+package com.dms.useful.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code RequestDeadline} guarda, na thread da requisição, o instante em que
+ * o cliente deixa de esperar pela resposta.
+ * 
+ * <pre>
+ * Definido pelo RequestDeadlineFilter (dms-web) e lido pelo
+ * QueryTimeoutInterceptor (dms-jpa), que aplica o tempo restante como
+ * timeout das consultas.
+ * 
+ * O holder é um long[] por thread, reutilizado entre requisições: definir e
+ * limpar o prazo não aloca memória.
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public final class RequestDeadline {
+
+	private static final int ACTIVE = 0;
+	private static final int DEADLINE = 1;
+
+	private static final ThreadLocal<long[]> HOLDER = ThreadLocal.withInitial(() -> new long[2]);
+
+	private RequestDeadline() {
+	}
+
+	/**
+	 * Define o prazo da requisição corrente.
+	 * 
+	 * @param budget tempo que o cliente aceita esperar
+	 */
+	public static void start(Duration budget) {
+		long[] holder = HOLDER.get();
+		holder[DEADLINE] = System.nanoTime() + budget.toNanos();
+		holder[ACTIVE] = 1;
+	}
+
+	/**
+	 * Remove o prazo; chamar ao final da requisição.
+	 */
+	public static void clear() {
+		HOLDER.get()[ACTIVE] = 0;
+	}
+
+	/**
+	 * @return {@code true} se a requisição corrente tem prazo
+	 */
+	public static boolean isActive() {
+		return HOLDER.get()[ACTIVE] != 0;
+	}
+
+	/**
+	 * @return milissegundos restantes (zero ou negativo se o prazo já passou),
+	 *         ou {@code Long.MAX_VALUE} sem prazo
+	 */
+	public static long remainingMillis() {
+		long[] holder = HOLDER.get();
+		if (holder[ACTIVE] == 0) {
+			return Long.MAX_VALUE;
+		}
+		return TimeUnit.NANOSECONDS.toMillis(holder[DEADLINE] - System.nanoTime());
+	}
+
+	/**
+	 * @return {@code true} se a requisição corrente tem prazo e ele já passou
+	 */
+	public static boolean isExpired() {
+		long[] holder = HOLDER.get();
+		return holder[ACTIVE] != 0 && holder[DEADLINE] - System.nanoTime() <= 0;
+	}
+}
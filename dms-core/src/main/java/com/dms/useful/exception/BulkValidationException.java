@@ -0,0 +1,39 @@
+package com.dms.useful.exception;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Thrown when one or more elements of a collection fail validation.
+ * 
+ * The violations are keyed by indexed property path, e.g.
+ * {@code items[42].email}, in element order.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class BulkValidationException extends RuntimeException {
+
+	private static final long serialVersionUID = 2877213464251045377L;
+
+	private final transient Map<String, String> violations;
+	private final boolean truncated;
+
+	public BulkValidationException(Map<String, String> violations, boolean truncated) {
+		super(String.format("%d violation(s) found%s", violations.size(), truncated ? " (fail-fast)" : ""));
+		this.violations = Collections.unmodifiableMap(violations);
+		this.truncated = truncated;
+	}
+
+	public Map<String, String> getViolations() {
+		return violations;
+	}
+
+	/**
+	 * @return {@code true} if validation stopped early (fail-fast) and there
+	 *         may be more violations than the reported ones
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+}
@@ -0,0 +1,38 @@
+package com.dms.useful.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a request is rejected because the service is over its
+ * concurrency limit.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = -5203146307541838154L;
+
+	private final HttpStatus status;
+	private final long retryAfterSeconds;
+
+	public ConcurrencyLimitExceededException(int limit, HttpStatus status, long retryAfterSeconds) {
+		super(String.format("Concurrency limit of %d requests exceeded", limit));
+		this.status = status;
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	/**
+	 * @return {@code 503 Service Unavailable} or {@code 429 Too Many Requests}
+	 */
+	public HttpStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return value of the {@code Retry-After} header, in seconds
+	 */
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
@@ -0,0 +1,37 @@
+package com.dms.useful.exception;
+
+/**
+ * Lançada quando uma falha transitória de acesso a dados (deadlock, espera
+ * por lock) persiste após as novas tentativas, ou o orçamento de novas
+ * tentativas se esgotou.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class DataAccessContentionException extends RuntimeException {
+
+	private static final long serialVersionUID = -3021554719340586417L;
+
+	private final int attempts;
+	private final long retryAfterSeconds;
+
+	public DataAccessContentionException(int attempts, long retryAfterSeconds, Throwable cause) {
+		super(String.format("Data access failed after %d attempt(s)", attempts), cause);
+		this.attempts = attempts;
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	/**
+	 * @return número de tentativas feitas
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+
+	/**
+	 * @return valor do header {@code Retry-After}, em segundos
+	 */
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
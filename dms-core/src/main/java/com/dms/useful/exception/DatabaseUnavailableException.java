@@ -0,0 +1,27 @@
+package com.dms.useful.exception;
+
+/**
+ * Thrown, without touching the database, while the data access circuit
+ * breaker is open.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class DatabaseUnavailableException extends RuntimeException {
+
+	private static final long serialVersionUID = 4412609179823455095L;
+
+	private final long retryAfterSeconds;
+
+	public DatabaseUnavailableException(long retryAfterSeconds) {
+		super("Database temporarily unavailable");
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	/**
+	 * @return value of the {@code Retry-After} header, in seconds
+	 */
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
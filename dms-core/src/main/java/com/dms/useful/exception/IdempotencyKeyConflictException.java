@@ -0,0 +1,35 @@
+package com.dms.useful.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when an {@code Idempotency-Key} is reused with a different payload,
+ * while its first request is still running for too long, with a body too
+ * large to be remembered, or when the store is full of requests in
+ * progress.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+	private static final long serialVersionUID = -3470101719385936092L;
+
+	private final HttpStatus status;
+
+	public IdempotencyKeyConflictException(String message, HttpStatus status) {
+		super(message);
+		this.status = status;
+	}
+
+	/**
+	 * @return {@code 422 Unprocessable Entity} for a different payload,
+	 *         {@code 409 Conflict} for a request still in progress,
+	 *         {@code 413 Payload Too Large} for a body over the limit,
+	 *         {@code 503 Service Unavailable} for a store full of requests
+	 *         in progress
+	 */
+	public HttpStatus getStatus() {
+		return status;
+	}
+}
@@ -0,0 +1,20 @@
+package com.dms.useful.exception;
+
+/**
+ * Lançada quando uma chamada é rejeitada porque o prazo da requisição já
+ * passou.
+ * 
+ * Não é uma {@code DataAccessException}: o banco nem foi chamado, logo
+ * circuit breakers e retentativas não devem tomá-la por falha do banco.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class RequestDeadlineExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 2815532671093448762L;
+
+	public RequestDeadlineExceededException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,54 @@
+package com.dms.useful.exception;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Lançada quando a alteração de uma entidade versionada ({@code @Version})
+ * perdeu a corrida para outra transação. Leva a versão atual, quando
+ * conhecida, para que o cliente refaça a alteração condicionalmente, sem um
+ * novo GET.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class VersionConflictException extends RuntimeException {
+
+	private static final long serialVersionUID = 5489270136614389402L;
+
+	private final String entity;
+	private final Object id;
+	private final Object currentVersion;
+
+	/**
+	 * @param entity         nome da entidade
+	 * @param id             identificador da entidade, se conhecido
+	 * @param currentVersion versão gravada agora, ou {@code null} quando
+	 *                       desconhecida ou a entidade foi excluída
+	 * @param cause          a falha de lock otimista
+	 */
+	public VersionConflictException(String entity, @Nullable Object id, @Nullable Object currentVersion,
+			@Nullable Throwable cause) {
+		super(String.format("%s was updated or deleted by another transaction", entity), cause);
+		this.entity = entity;
+		this.id = id;
+		this.currentVersion = currentVersion;
+	}
+
+	public String getEntity() {
+		return entity;
+	}
+
+	@Nullable
+	public Object getId() {
+		return id;
+	}
+
+	/**
+	 * @return versão gravada agora, ou {@code null} quando desconhecida ou a
+	 *         entidade foi excluída
+	 */
+	@Nullable
+	public Object getCurrentVersion() {
+		return currentVersion;
+	}
+}
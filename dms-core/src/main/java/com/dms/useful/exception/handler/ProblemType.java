@@ -1,5 +1,8 @@
 package com.dms.useful.exception.handler;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum ProblemType {
 	EMPTY_RESULT_DATA_ACCESS("/empty-result-data-access", "Empty Result Data Access"),
 	DATA_INTEGRITY_VIOLATION("/data-integrity-violation", "Data Integrity Violation"),
@@ -11,14 +14,30 @@ public enum ProblemType {
 	HTTP_REQUEST_METHOD_NOT_SUPPORTED("/http-request-method-not-supported", "Http Request Method Not Supported"),
 	HTTP_MEDIA_TYPE_NOT_ACCEPTABLE("/http-media-type-not-acceptable", "Http Media Type Not Acceptable"),
 	NOT_FOUND("/not-found", "Not Found"),
+	CONCURRENCY_LIMIT_EXCEEDED("/concurrency-limit-exceeded", "Concurrency Limit Exceeded"),
+	DATABASE_UNAVAILABLE("/database-unavailable", "Database Unavailable"),
+	IDEMPOTENCY_KEY_CONFLICT("/idempotency-key-conflict", "Idempotency Key Conflict"),
+	DEADLINE_EXCEEDED("/deadline-exceeded", "Deadline Exceeded"),
+	DATA_ACCESS_CONTENTION("/data-access-contention", "Data Access Contention"),
+	VERSION_CONFLICT("/version-conflict", "Version Conflict"),
 	INTERNAL_SERVER_ERROR("/internal-server-error", "Internal Server Error");
 
+	private static final Map<String, ProblemType> BY_URI = new HashMap<>();
+
+	static {
+		for (ProblemType problemType : values()) {
+			BY_URI.put(problemType.uri, problemType);
+		}
+	}
+
 	private String uri;
 	private String title;
+	private String code;
 
 	ProblemType(String path, String title) {
 		this.uri = "https://api.dms.com.br" + path;
 		this.title = title;
+		this.code = "resource" + path.replace('/', '.');
 	}
 
 	public String getUri() {
@@ -28,4 +47,23 @@ public enum ProblemType {
 	public String getTitle() {
 		return title;
 	}
+
+	/**
+	 * Chave da mensagem personalizada no messages.properties.
+	 * 
+	 * @return ex.: {@code resource.not-found}
+	 * @since 3.0.0
+	 */
+	public String getCode() {
+		return code;
+	}
+
+	/**
+	 * @param uri type of a {@code ProblemDetail}
+	 * @return the {@code ProblemType} of the URI, or {@code null}
+	 * @since 3.0.0
+	 */
+	public static ProblemType fromUri(String uri) {
+		return BY_URI.get(uri);
+	}
 }
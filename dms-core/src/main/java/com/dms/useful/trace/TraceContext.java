@@ -0,0 +1,224 @@
+package com.dms.useful.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * {@code TraceContext} guarda, na thread da requisição, o contexto W3C
+ * ({@code traceparent}) usado para correlacionar o {@code ProblemDetail}
+ * recebido pelo cliente com os logs.
+ * 
+ * <pre>
+ * Definido pelo TraceContextFilter (dms-web), a partir do header
+ * traceparent ou, sem ele (ou inválido), com um trace-id gerado por
+ * ThreadLocalRandom (não criptográfico).
+ * 
+ * version-trace_id-parent_id-flags, ex.:
+ * 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01
+ * 
+ * O holder é um char[] por thread, reutilizado entre requisições: o parse
+ * não usa regex nem substring, e traceId() é uma visão (CharSequence) do
+ * buffer, que o log pode anexar sem criar Strings:
+ * builder.append(TraceContext.traceId());
+ * A visão só vale na thread e até o fim da requisição: para guardar, usar
+ * toString().
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public final class TraceContext {
+
+	static final int LENGTH = 55;
+	private static final int TRACE_ID = 3;
+	private static final int TRACE_ID_LENGTH = 32;
+	private static final int PARENT_ID = 36;
+	private static final int PARENT_ID_LENGTH = 16;
+	private static final int FLAGS = 53;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private static final ThreadLocal<Holder> HOLDER = ThreadLocal.withInitial(Holder::new);
+
+	private TraceContext() {
+	}
+
+	/**
+	 * Define o contexto da requisição corrente.
+	 * 
+	 * @param traceparent header {@code traceparent}, ou {@code null}
+	 * @return {@code true} se o header foi aceito, {@code false} se o
+	 *         trace-id foi gerado
+	 */
+	public static boolean start(@Nullable CharSequence traceparent) {
+		Holder holder = HOLDER.get();
+		holder.active = true;
+		if (parse(traceparent, holder.chars)) {
+			return true;
+		}
+		generate(holder.chars);
+		return false;
+	}
+
+	/**
+	 * Remove o contexto; chamar ao final da requisição.
+	 */
+	public static void clear() {
+		HOLDER.get().active = false;
+	}
+
+	/**
+	 * @return {@code true} se a requisição corrente tem contexto
+	 */
+	public static boolean isActive() {
+		return HOLDER.get().active;
+	}
+
+	/**
+	 * @return os 32 caracteres hexadecimais do trace-id, ou {@code null} sem
+	 *         contexto
+	 */
+	@Nullable
+	public static CharSequence traceId() {
+		Holder holder = HOLDER.get();
+		return holder.active ? holder.traceId : null;
+	}
+
+	/**
+	 * @return o {@code traceparent} completo (versão 00), ou {@code null} sem
+	 *         contexto
+	 */
+	@Nullable
+	public static CharSequence traceparent() {
+		Holder holder = HOLDER.get();
+		return holder.active ? holder.traceparent : null;
+	}
+
+	static boolean parse(@Nullable CharSequence value, char[] chars) {
+		if (value == null || value.length() < LENGTH) {
+			return false;
+		}
+		char v0 = value.charAt(0);
+		char v1 = value.charAt(1);
+		if (!isHex(v0) || !isHex(v1) || (v0 == 'f' && v1 == 'f')) {
+			return false;
+		}
+		// a versão 00 tem tamanho fixo; versões futuras podem acrescentar campos
+		if (value.length() > LENGTH && (v0 == '0' && v1 == '0' || value.charAt(LENGTH) != '-')) {
+			return false;
+		}
+		if (value.charAt(2) != '-' || value.charAt(PARENT_ID - 1) != '-' || value.charAt(FLAGS - 1) != '-') {
+			return false;
+		}
+		if (!copyHex(value, TRACE_ID, TRACE_ID_LENGTH, chars) || !copyHex(value, PARENT_ID, PARENT_ID_LENGTH, chars)
+				|| !copyHex(value, FLAGS, 2, chars)) {
+			return false;
+		}
+		// o contexto é repassado na versão que o serviço entende
+		chars[0] = '0';
+		chars[1] = '0';
+		return true;
+	}
+
+	/**
+	 * Copia e valida um campo hexadecimal; campos só de zeros são inválidos.
+	 */
+	private static boolean copyHex(CharSequence value, int start, int length, char[] chars) {
+		boolean zero = true;
+		for (int i = start; i < start + length; i++) {
+			char c = value.charAt(i);
+			if (!isHex(c)) {
+				return false;
+			}
+			zero &= c == '0';
+			chars[i] = c;
+		}
+		return length == 2 || !zero;
+	}
+
+	private static boolean isHex(char c) {
+		return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+	}
+
+	static void generate(char[] chars) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long high;
+		long low;
+		do {
+			high = random.nextLong();
+			low = random.nextLong();
+		} while (high == 0 && low == 0);
+		long parent;
+		do {
+			parent = random.nextLong();
+		} while (parent == 0);
+		chars[0] = '0';
+		chars[1] = '0';
+		writeHex(high, chars, TRACE_ID);
+		writeHex(low, chars, TRACE_ID + 16);
+		writeHex(parent, chars, PARENT_ID);
+		chars[FLAGS] = '0';
+		chars[FLAGS + 1] = '0';
+	}
+
+	private static void writeHex(long value, char[] chars, int offset) {
+		for (int i = 15; i >= 0; i--) {
+			chars[offset + i] = HEX[(int) (value & 0xF)];
+			value >>>= 4;
+		}
+	}
+
+	private static final class Holder {
+
+		private final char[] chars = new char[LENGTH];
+		private final CharSequence traceparent = new View(this.chars, 0, LENGTH);
+		private final CharSequence traceId = new View(this.chars, TRACE_ID, TRACE_ID_LENGTH);
+		private boolean active;
+
+		private Holder() {
+			this.chars[2] = '-';
+			this.chars[PARENT_ID - 1] = '-';
+			this.chars[FLAGS - 1] = '-';
+		}
+	}
+
+	/**
+	 * Visão de um trecho do buffer, sem cópia.
+	 */
+	private static final class View implements CharSequence {
+
+		private final char[] chars;
+		private final int offset;
+		private final int length;
+
+		private View(char[] chars, int offset, int length) {
+			this.chars = chars;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		@Override
+		public int length() {
+			return this.length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= this.length) {
+				throw new IndexOutOfBoundsException("index " + index);
+			}
+			return this.chars[this.offset + index];
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return toString().subSequence(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return new String(this.chars, this.offset, this.length);
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.dms.useful.validation;
+
+/**
+ * {@code BrazilianDocuments} validates the check digits of CPF and CNPJ
+ * numbers.
+ * 
+ * <pre>
+ * The masks (. - /) are optional: 529.982.247-25 and 52998224725 are both
+ * accepted. CNPJ accepts the alphanumeric format, where the first twelve
+ * characters may be [0-9A-Z] and each one weighs (char - '0').
+ * 
+ * The check is done in a single pass over the {@code CharSequence}, without
+ * regex, substring or any other allocation, so the bulk methods can be used
+ * on large ETL batches.
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public final class BrazilianDocuments {
+
+	private static final int CPF_LENGTH = 11;
+	private static final int CNPJ_LENGTH = 14;
+
+	private BrazilianDocuments() {}
+
+	/**
+	 * Checks the CPF check digits.
+	 * 
+	 * @param cpf with or without mask
+	 * @return {@code true} if the CPF is valid
+	 */
+	public static boolean isValidCpf(CharSequence cpf) {
+		if (cpf == null) {
+			return false;
+		}
+		int position = 0;
+		int first = -1;
+		boolean repeated = true;
+		int sum1 = 0;
+		int sum2 = 0;
+		int dv1 = 0;
+		int dv2 = 0;
+
+		for (int i = 0, length = cpf.length(); i < length; i++) {
+			char c = cpf.charAt(i);
+			if (isMask(c)) {
+				continue;
+			}
+			if (c < '0' || c > '9' || position == CPF_LENGTH) {
+				return false;
+			}
+			int value = c - '0';
+			if (first < 0) {
+				first = value;
+			} else if (value != first) {
+				repeated = false;
+			}
+			if (position < 9) {
+				sum1 += value * (10 - position);
+				sum2 += value * (11 - position);
+			} else if (position == 9) {
+				dv1 = value;
+				sum2 += value * 2;
+			} else {
+				dv2 = value;
+			}
+			position++;
+		}
+		return position == CPF_LENGTH && !repeated && dv1 == checkDigit(sum1) && dv2 == checkDigit(sum2);
+	}
+
+	/**
+	 * Checks the CNPJ check digits, numeric or alphanumeric.
+	 * 
+	 * @param cnpj with or without mask
+	 * @return {@code true} if the CNPJ is valid
+	 */
+	public static boolean isValidCnpj(CharSequence cnpj) {
+		if (cnpj == null) {
+			return false;
+		}
+		int position = 0;
+		int first = -1;
+		boolean repeated = true;
+		int sum1 = 0;
+		int sum2 = 0;
+		int dv1 = 0;
+		int dv2 = 0;
+
+		for (int i = 0, length = cnpj.length(); i < length; i++) {
+			char c = cnpj.charAt(i);
+			if (isMask(c)) {
+				continue;
+			}
+			if (position == CNPJ_LENGTH) {
+				return false;
+			}
+			boolean digit = c >= '0' && c <= '9';
+			if (!digit && (position >= 12 || c < 'A' || c > 'Z')) {
+				return false;
+			}
+			int value = c - '0';
+			if (first < 0) {
+				first = value;
+			} else if (value != first) {
+				repeated = false;
+			}
+			if (position < 12) {
+				sum1 += value * (2 + (11 - position) % 8);
+				sum2 += value * (2 + (12 - position) % 8);
+			} else if (position == 12) {
+				dv1 = value;
+				sum2 += value * 2;
+			} else {
+				dv2 = value;
+			}
+			position++;
+		}
+		return position == CNPJ_LENGTH && !repeated && dv1 == checkDigit(sum1) && dv2 == checkDigit(sum2);
+	}
+
+	/**
+	 * Validates a batch of CPFs.
+	 * 
+	 * @param cpfs    documents to be checked
+	 * @param results receives, at the same index, whether each document is
+	 *                valid. Must be at least as long as {@code cpfs}
+	 * @return number of invalid documents
+	 */
+	public static int validateCpfs(CharSequence[] cpfs, boolean[] results) {
+		checkBatch(cpfs, results);
+		int invalid = 0;
+		for (int i = 0; i < cpfs.length; i++) {
+			results[i] = isValidCpf(cpfs[i]);
+			if (!results[i]) {
+				invalid++;
+			}
+		}
+		return invalid;
+	}
+
+	/**
+	 * Validates a batch of CNPJs.
+	 * 
+	 * @param cnpjs   documents to be checked
+	 * @param results receives, at the same index, whether each document is
+	 *                valid. Must be at least as long as {@code cnpjs}
+	 * @return number of invalid documents
+	 */
+	public static int validateCnpjs(CharSequence[] cnpjs, boolean[] results) {
+		checkBatch(cnpjs, results);
+		int invalid = 0;
+		for (int i = 0; i < cnpjs.length; i++) {
+			results[i] = isValidCnpj(cnpjs[i]);
+			if (!results[i]) {
+				invalid++;
+			}
+		}
+		return invalid;
+	}
+
+	private static void checkBatch(CharSequence[] documents, boolean[] results) {
+		if (documents == null || results == null || results.length < documents.length) {
+			throw new IllegalArgumentException("Results must be at least as long as documents");
+		}
+	}
+
+	private static boolean isMask(char c) {
+		return c == '.' || c == '-' || c == '/';
+	}
+
+	private static int checkDigit(int sum) {
+		int remainder = sum % 11;
+		return remainder < 2 ? 0 : 11 - remainder;
+	}
+}
@@ -0,0 +1,235 @@
+package com.dms.useful.validation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import javax.validation.constraints.NotNull;
+
+import org.springframework.util.Assert;
+
+import com.dms.useful.exception.BulkValidationException;
+
+/**
+ * {@code BulkValidator} validates large collections splitting them across a
+ * {@link ForkJoinPool}. One thread-safe {@link Validator} is shared by every
+ * task.
+ * 
+ * <pre>
+ * Violations are keyed by indexed property path, in element order:
+ * items[42].email=must be a well-formed email address
+ * 
+ * A null element is reported at its index, with the &#64;NotNull message of
+ * the Validator:
+ * items[3]=must not be null
+ * 
+ * With maxViolations greater than zero (fail-fast) the tasks stop as soon as
+ * that number of violations is found.
+ * 
+ * Ex. in a controller:
+ * bulkValidator.validateOrThrow("items", dtos);
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class BulkValidator {
+
+	/**
+	 * Collections up to this size are validated in the caller thread.
+	 */
+	public static final int DEFAULT_THRESHOLD = 256;
+
+	private final Validator validator;
+	private final ForkJoinPool pool;
+	private final int threshold;
+	private final int maxViolations;
+
+	/**
+	 * Validator with the common pool, {@link #DEFAULT_THRESHOLD} and no
+	 * fail-fast.
+	 * 
+	 * @param validator thread-safe {@code Validator}
+	 */
+	public BulkValidator(Validator validator) {
+		this(validator, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD, 0);
+	}
+
+	/**
+	 * @param validator     thread-safe {@code Validator}
+	 * @param pool          where the validation tasks run
+	 * @param threshold     number of elements validated by each task
+	 * @param maxViolations stop after this number of violations, or zero to
+	 *                      validate every element
+	 */
+	public BulkValidator(Validator validator, ForkJoinPool pool, int threshold, int maxViolations) {
+		Assert.notNull(validator, "Validator is required");
+		Assert.notNull(pool, "ForkJoinPool is required");
+		Assert.isTrue(threshold > 0, "Threshold must be greater than zero");
+		Assert.isTrue(maxViolations >= 0, "MaxViolations must not be negative");
+		this.validator = validator;
+		this.pool = pool;
+		this.threshold = threshold;
+		this.maxViolations = maxViolations;
+	}
+
+	/**
+	 * Validates every element of the collection.
+	 * 
+	 * @param name   prefix of the property paths, e.g. {@code items}
+	 * @param items  elements to be validated
+	 * @param groups validation groups
+	 * @return violations keyed by indexed property path, in element order.
+	 *         Empty if every element is valid
+	 */
+	public Map<String, String> validate(String name, List<?> items, Class<?>... groups) {
+		return collect(name, items, groups).violations;
+	}
+
+	/**
+	 * Validates every element of the collection.
+	 * 
+	 * @param name   prefix of the property paths, e.g. {@code items}
+	 * @param items  elements to be validated
+	 * @param groups validation groups
+	 * @throws BulkValidationException if any element is invalid
+	 */
+	public void validateOrThrow(String name, List<?> items, Class<?>... groups) {
+		Result result = collect(name, items, groups);
+		if (!result.violations.isEmpty()) {
+			throw new BulkValidationException(result.violations, result.truncated);
+		}
+	}
+
+	private Result collect(String name, List<?> items, Class<?>... groups) {
+		Assert.notNull(items, "Items is required");
+		AtomicInteger found = new AtomicInteger();
+		AtomicBoolean skipped = new AtomicBoolean();
+		ValidationTask task = new ValidationTask(name, items, groups, 0, items.size(), found, skipped);
+
+		List<Violation> violations = items.size() <= this.threshold ? task.compute() : this.pool.invoke(task);
+
+		// truncado somente se algo ficou de fora: paths descartados ou elementos não validados
+		boolean truncated = skipped.get();
+		Map<String, String> result = new LinkedHashMap<>();
+		for (Violation violation : violations) {
+			if (this.maxViolations > 0 && result.size() == this.maxViolations && !result.containsKey(violation.path)) {
+				truncated = true;
+				break;
+			}
+			result.merge(violation.path, violation.message, (a, b) -> a + ", " + b);
+		}
+		return new Result(result, truncated);
+	}
+
+	/**
+	 * The tasks stop only after the limit is exceeded, so reaching exactly
+	 * {@code maxViolations} is not reported as truncated.
+	 */
+	private boolean limitReached(AtomicInteger found) {
+		return this.maxViolations > 0 && found.get() > this.maxViolations;
+	}
+
+	/**
+	 * Holder of a null element: the Validator does not accept null, and this
+	 * way the message is the one of &#64;NotNull, interpolated as any other.
+	 */
+	private static final class NullElement {
+		@NotNull
+		private Object element;
+	}
+
+	private static final class Violation {
+		private final String path;
+		private final String message;
+
+		private Violation(String path, String message) {
+			this.path = path;
+			this.message = message;
+		}
+	}
+
+	private static final class Result {
+		private final Map<String, String> violations;
+		private final boolean truncated;
+
+		private Result(Map<String, String> violations, boolean truncated) {
+			this.violations = violations;
+			this.truncated = truncated;
+		}
+	}
+
+	private final class ValidationTask extends RecursiveTask<List<Violation>> {
+
+		private static final long serialVersionUID = -2920568745713245917L;
+
+		private final String name;
+		private final List<?> items;
+		private final Class<?>[] groups;
+		private final int from;
+		private final int to;
+		private final AtomicInteger found;
+		private final AtomicBoolean skipped;
+
+		private ValidationTask(String name, List<?> items, Class<?>[] groups, int from, int to, AtomicInteger found,
+				AtomicBoolean skipped) {
+			this.name = name;
+			this.items = items;
+			this.groups = groups;
+			this.from = from;
+			this.to = to;
+			this.found = found;
+			this.skipped = skipped;
+		}
+
+		@Override
+		protected List<Violation> compute() {
+			if (this.to - this.from > threshold) {
+				int middle = (this.from + this.to) >>> 1;
+				ValidationTask left = new ValidationTask(this.name, this.items, this.groups, this.from, middle, this.found,
+						this.skipped);
+				ValidationTask right = new ValidationTask(this.name, this.items, this.groups, middle, this.to, this.found,
+						this.skipped);
+				right.fork();
+				List<Violation> violations = left.compute();
+				violations.addAll(right.join());
+				return violations;
+			}
+
+			List<Violation> violations = new ArrayList<>();
+			for (int i = this.from; i < this.to; i++) {
+				if (limitReached(this.found)) {
+					this.skipped.set(true);
+					break;
+				}
+				Object item = this.items.get(i);
+				// o elemento nulo é a própria violação, no índice dele
+				Set<? extends ConstraintViolation<?>> result = item != null ? validator.validate(item, this.groups)
+						: validator.validate(new NullElement());
+				for (ConstraintViolation<?> violation : result) {
+					String property = item != null ? violation.getPropertyPath().toString() : "";
+					violations.add(new Violation(path(i, property), violation.getMessage()));
+				}
+				this.found.addAndGet(result.size());
+			}
+			return violations;
+		}
+
+		private String path(int index, String property) {
+			StringBuilder path = new StringBuilder(this.name.length() + property.length() + 8)
+					.append(this.name).append('[').append(index).append(']');
+			if (!property.isEmpty()) {
+				path.append('.').append(property);
+			}
+			return path.toString();
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.dms.useful.validation;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.ElementType.TYPE_USE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+
+/**
+ * The annotated {@code CharSequence} must be a valid CNPJ (numeric or alphanumeric), with or without
+ * mask. {@code null} is considered valid.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ * @see BrazilianDocuments#isValidCnpj(CharSequence)
+ */
+@Documented
+@Constraint(validatedBy = CNPJValidator.class)
+@Target({ FIELD, METHOD, PARAMETER, TYPE_USE })
+@Retention(RUNTIME)
+public @interface CNPJ {
+
+	String message() default "CNPJ inválido";
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,18 @@
+package com.dms.useful.validation;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Validator of the {@link CPF} constraint.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class CPFValidator implements ConstraintValidator<CPF, CharSequence> {
+
+	@Override
+	public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+		return value == null || BrazilianDocuments.isValidCpf(value);
+	}
+}
@@ -0,0 +1,78 @@
+package com.dms.useful.trace;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TraceContextTest {
+
+	private static final String TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+	@After
+	public void tearDown() {
+		TraceContext.clear();
+	}
+
+	@Test
+	public void shouldUseTheIncomingTraceparent() {
+		assertTrue(TraceContext.start(TRACEPARENT));
+
+		assertTrue(TraceContext.isActive());
+		assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", TraceContext.traceId().toString());
+		assertEquals(TRACEPARENT, TraceContext.traceparent().toString());
+	}
+
+	@Test
+	public void shouldAcceptFutureVersionsWithMoreFields() {
+		assertTrue(TraceContext.start("cc-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra"));
+
+		assertEquals(TRACEPARENT, TraceContext.traceparent().toString());
+	}
+
+	@Test
+	public void shouldGenerateWhenTheTraceparentIsInvalid() {
+		String[] invalid = { null, "", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7",
+				"00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01",
+				"00-00000000000000000000000000000000-00f067aa0ba902b7-01",
+				"00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01",
+				"ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+				"00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra",
+				"00_4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01" };
+		for (String value : invalid) {
+			assertFalse(value, TraceContext.start(value));
+			String traceparent = TraceContext.traceparent().toString();
+			assertTrue(traceparent, traceparent.matches("00-[0-9a-f]{32}-[0-9a-f]{16}-00"));
+			assertNotEquals("00000000000000000000000000000000", TraceContext.traceId().toString());
+		}
+	}
+
+	@Test
+	public void shouldGenerateDifferentIds() {
+		TraceContext.start(null);
+		String first = TraceContext.traceId().toString();
+		TraceContext.start(null);
+
+		assertNotEquals(first, TraceContext.traceId().toString());
+	}
+
+	@Test
+	public void shouldReuseTheBufferOfTheThread() {
+		TraceContext.start(TRACEPARENT);
+		CharSequence traceId = TraceContext.traceId();
+		TraceContext.start("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+
+		assertSame(traceId, TraceContext.traceId());
+		assertEquals("0af7651916cd43dd8448eb211c80319c", new StringBuilder().append(traceId).toString());
+	}
+
+	@Test
+	public void shouldHaveNoContextAfterClear() {
+		TraceContext.start(TRACEPARENT);
+		TraceContext.clear();
+
+		assertFalse(TraceContext.isActive());
+		assertNull(TraceContext.traceId());
+		assertNull(TraceContext.traceparent());
+	}
+}
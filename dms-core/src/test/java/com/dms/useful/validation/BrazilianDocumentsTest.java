@@ -0,0 +1,86 @@
+package com.dms.useful.validation;
+
+import static org.junit.Assert.*;
+
+import java.util.Set;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Test;
+
+public class BrazilianDocumentsTest {
+
+	private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+	public static class Pessoa {
+
+		@CPF
+		private String cpf;
+		@CNPJ
+		private String cnpj;
+
+		public Pessoa(String cpf, String cnpj) {
+			this.cpf = cpf;
+			this.cnpj = cnpj;
+		}
+	}
+
+	@Test
+	public void shouldAcceptCpfWithAndWithoutMask() throws Exception {
+		assertTrue(BrazilianDocuments.isValidCpf("529.982.247-25"));
+		assertTrue(BrazilianDocuments.isValidCpf("52998224725"));
+	}
+
+	@Test
+	public void shouldRejectInvalidCpf() throws Exception {
+		assertFalse(BrazilianDocuments.isValidCpf("529.982.247-24"));
+		assertFalse(BrazilianDocuments.isValidCpf("111.111.111-11"));
+		assertFalse(BrazilianDocuments.isValidCpf("5299822472"));
+		assertFalse(BrazilianDocuments.isValidCpf("529982247250"));
+		assertFalse(BrazilianDocuments.isValidCpf("529.982.247-2X"));
+	}
+
+	@Test
+	public void shouldAcceptNumericCnpj() throws Exception {
+		assertTrue(BrazilianDocuments.isValidCnpj("11.222.333/0001-81"));
+		assertTrue(BrazilianDocuments.isValidCnpj("11222333000181"));
+	}
+
+	@Test
+	public void shouldAcceptAlphanumericCnpj() throws Exception {
+		assertTrue(BrazilianDocuments.isValidCnpj("12.ABC.345/01DE-35"));
+		assertFalse(BrazilianDocuments.isValidCnpj("12.ABC.345/01DE-34"));
+		assertFalse(BrazilianDocuments.isValidCnpj("12.ABC.345/01DE-3A"));
+	}
+
+	@Test
+	public void shouldRejectRepeatedCnpj() throws Exception {
+		assertFalse(BrazilianDocuments.isValidCnpj("00.000.000/0000-00"));
+	}
+
+	@Test
+	public void shouldValidateBatch() throws Exception {
+		CharSequence[] cpfs = { "529.982.247-25", "000.000.000-00", null };
+		boolean[] results = new boolean[cpfs.length];
+
+		assertEquals(2, BrazilianDocuments.validateCpfs(cpfs, results));
+		assertArrayEquals(new boolean[] { true, false, false }, results);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRequireResultsAsLongAsDocuments() throws Exception {
+		BrazilianDocuments.validateCnpjs(new CharSequence[2], new boolean[1]);
+	}
+
+	@Test
+	public void shouldValidateConstraints() throws Exception {
+		assertTrue(validator.validate(new Pessoa("529.982.247-25", "11.222.333/0001-81")).isEmpty());
+		assertTrue(validator.validate(new Pessoa(null, null)).isEmpty());
+
+		Set<ConstraintViolation<Pessoa>> violations = validator.validate(new Pessoa("123", "11.222.333/0001-81"));
+		assertEquals(1, violations.size());
+		assertEquals("cpf", violations.iterator().next().getPropertyPath().toString());
+	}
+}
@@ -0,0 +1,140 @@
+package com.dms.useful.validation;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.dms.useful.exception.BulkValidationException;
+
+public class BulkValidatorTest {
+
+	private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+
+	public static class Item {
+
+		@NotNull
+		private String nome;
+		@CPF
+		@Size(min = 11)
+		private String cpf;
+
+		public Item(String nome, String cpf) {
+			this.nome = nome;
+			this.cpf = cpf;
+		}
+	}
+
+	@After
+	public void tearDown() {
+		this.pool.shutdown();
+	}
+
+	private List<Item> items(int size, int... invalid) {
+		List<Item> items = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			items.add(new Item("nome", "529.982.247-25"));
+		}
+		for (int i : invalid) {
+			items.set(i, new Item(null, "529.982.247-25"));
+		}
+		return items;
+	}
+
+	@Test
+	public void shouldReturnIndexedPathsInElementOrder() throws Exception {
+		BulkValidator bulkValidator = new BulkValidator(validator, pool, 8, 0);
+
+		Map<String, String> violations = bulkValidator.validate("items", items(1000, 999, 42, 7));
+
+		assertEquals(Arrays.asList("items[7].nome", "items[42].nome", "items[999].nome"),
+				new ArrayList<>(violations.keySet()));
+	}
+
+	@Test
+	public void shouldReportNullElementsAtTheirIndex() throws Exception {
+		List<Item> items = items(600);
+		items.set(3, null);
+		items.set(500, null);
+
+		Map<String, String> violations = new BulkValidator(validator, pool, 8, 0).validate("items", items);
+
+		assertEquals(Arrays.asList("items[3]", "items[500]"), new ArrayList<>(violations.keySet()));
+		assertNotNull(violations.get("items[3]"));
+	}
+
+	@Test
+	public void shouldBeEmptyWhenEveryElementIsValid() throws Exception {
+		assertTrue(new BulkValidator(validator).validate("items", items(10)).isEmpty());
+	}
+
+	@Test
+	public void shouldJoinMessagesOfTheSameProperty() throws Exception {
+		List<Item> items = Arrays.asList(new Item(null, "123"));
+
+		Map<String, String> violations = new BulkValidator(validator).validate("items", items);
+
+		assertEquals(2, violations.size());
+		String cpf = violations.get("items[0].cpf");
+		List<String> messages = Arrays.asList(cpf.split(", "));
+		assertEquals(2, messages.size());
+		assertTrue(cpf, messages.contains("CPF inválido"));
+		assertTrue(cpf, messages.stream().anyMatch(message -> message.contains("11")));
+	}
+
+	@Test
+	public void shouldStopAfterMaxViolations() throws Exception {
+		BulkValidator bulkValidator = new BulkValidator(validator, pool, 4, 2);
+		int[] invalid = new int[500];
+		for (int i = 0; i < invalid.length; i++) {
+			invalid[i] = i * 2;
+		}
+
+		try {
+			bulkValidator.validateOrThrow("items", items(1000, invalid));
+			fail("BulkValidationException expected");
+		} catch (BulkValidationException e) {
+			assertEquals(2, e.getViolations().size());
+			assertTrue(e.isTruncated());
+		}
+	}
+
+	@Test
+	public void shouldNotBeTruncatedWithExactlyMaxViolations() throws Exception {
+		BulkValidator bulkValidator = new BulkValidator(validator, pool, 4, 2);
+
+		try {
+			bulkValidator.validateOrThrow("items", items(100, 10, 90));
+			fail("BulkValidationException expected");
+		} catch (BulkValidationException e) {
+			assertEquals(2, e.getViolations().size());
+			assertFalse(e.isTruncated());
+		}
+	}
+
+	@Test
+	public void shouldBeTruncatedWhenOneViolationIsDropped() throws Exception {
+		BulkValidator bulkValidator = new BulkValidator(validator, pool, 4, 2);
+
+		try {
+			bulkValidator.validateOrThrow("items", items(100, 10, 50, 90));
+			fail("BulkValidationException expected");
+		} catch (BulkValidationException e) {
+			assertEquals(Arrays.asList("items[10].nome", "items[50].nome"), new ArrayList<>(e.getViolations().keySet()));
+			assertTrue(e.isTruncated());
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package com.dms.useful.circuit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.Assert;
+
+import com.dms.useful.deadline.RequestDeadline;
+
+/**
+ * {@code DataAccessCircuitBreaker} opens when the rate of database failures
+ * in a sliding window goes over a threshold, so requests fail fast instead of
+ * waiting for JDBC timeouts.
+ * 
+ * <pre>
+ * CLOSED    - calls go through; failures and successes are counted in a
+ *             sliding window of 10 time buckets.
+ * OPEN      - calls are rejected until the open duration has passed.
+ * HALF_OPEN - a limited number of probes go through: all of them
+ *             successful closes the circuit, one failure opens it again.
+ * 
+ * Failures are the DataAccessException types of a degraded database
+ * (resource failure, transient and recoverable errors, connection and
+ * transaction creation failures). Lock and optimistic concurrency
+ * failures are contention, not degradation, and are not counted; nor is a
+ * query timeout after the RequestDeadline of the request has passed, since
+ * the budget came from the client (X-Request-Timeout), not the database.
+ * 
+ * The window and the state are lock-free (atomic arrays and CAS).
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ * @see DataAccessCircuitBreakerInterceptor
+ */
+public class DataAccessCircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private static final int BUCKETS = 10;
+
+	private final double failureRateThreshold;
+	private final int minimumCalls;
+	private final long bucketNanos;
+	private final long openNanos;
+	private final int halfOpenProbes;
+	private final LongSupplier nanoTime;
+
+	private final AtomicLongArray epochs = new AtomicLongArray(BUCKETS);
+	private final AtomicLongArray successes = new AtomicLongArray(BUCKETS);
+	private final AtomicLongArray failures = new AtomicLongArray(BUCKETS);
+
+	private final AtomicInteger state = new AtomicInteger(State.CLOSED.ordinal());
+	private final AtomicLong openUntil = new AtomicLong();
+	private final AtomicInteger probes = new AtomicInteger();
+	private final AtomicInteger successfulProbes = new AtomicInteger();
+
+	/**
+	 * Opens at 50% of failures, with at least 20 calls in a window of 10
+	 * seconds; stays open for 30 seconds and probes with 3 calls.
+	 */
+	public DataAccessCircuitBreaker() {
+		this(0.5, 20, Duration.ofSeconds(10), Duration.ofSeconds(30), 3);
+	}
+
+	/**
+	 * @param failureRateThreshold failure rate (0 to 1) that opens the circuit
+	 * @param minimumCalls         calls in the window before the rate counts
+	 * @param window               length of the sliding window
+	 * @param openDuration         how long the circuit stays open
+	 * @param halfOpenProbes       calls allowed while half-open
+	 */
+	public DataAccessCircuitBreaker(double failureRateThreshold, int minimumCalls, Duration window,
+			Duration openDuration, int halfOpenProbes) {
+		this(failureRateThreshold, minimumCalls, window, openDuration, halfOpenProbes, System::nanoTime);
+	}
+
+	DataAccessCircuitBreaker(double failureRateThreshold, int minimumCalls, Duration window, Duration openDuration,
+			int halfOpenProbes, LongSupplier nanoTime) {
+		Assert.isTrue(failureRateThreshold > 0 && failureRateThreshold <= 1,
+				"FailureRateThreshold must be greater than 0 and at most 1");
+		Assert.isTrue(minimumCalls > 0, "MinimumCalls must be greater than zero");
+		Assert.isTrue(window.toNanos() >= BUCKETS, "Window is too short");
+		Assert.isTrue(halfOpenProbes > 0, "HalfOpenProbes must be greater than zero");
+		this.failureRateThreshold = failureRateThreshold;
+		this.minimumCalls = minimumCalls;
+		this.bucketNanos = window.toNanos() / BUCKETS;
+		this.openNanos = openDuration.toNanos();
+		this.halfOpenProbes = halfOpenProbes;
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * Whether the exception means the database is degraded. Called in the
+	 * thread of the call, which holds the {@link RequestDeadline}.
+	 * 
+	 * @param ex thrown by a data access call
+	 * @return {@code true} if it counts as a failure
+	 */
+	public boolean isFailure(Throwable ex) {
+		if (ex instanceof ConcurrencyFailureException) {
+			return false;
+		}
+		if (ex instanceof QueryTimeoutException && RequestDeadline.isExpired()) {
+			return false;
+		}
+		return ex instanceof DataAccessResourceFailureException || ex instanceof TransientDataAccessException
+				|| ex instanceof RecoverableDataAccessException || ex instanceof CannotCreateTransactionException;
+	}
+
+	/**
+	 * Asks permission for a call.
+	 * 
+	 * @return {@code false} if the call must fail fast
+	 */
+	public boolean tryAcquire() {
+		for (;;) {
+			State current = getState();
+			if (current == State.CLOSED) {
+				return true;
+			}
+			if (current == State.OPEN) {
+				if (this.nanoTime.getAsLong() - this.openUntil.get() < 0) {
+					return false;
+				}
+				if (this.state.compareAndSet(State.OPEN.ordinal(), State.HALF_OPEN.ordinal())) {
+					this.successfulProbes.set(0);
+					this.probes.set(this.halfOpenProbes);
+				}
+				continue;
+			}
+			int permits = this.probes.get();
+			if (permits <= 0) {
+				return false;
+			}
+			if (this.probes.compareAndSet(permits, permits - 1)) {
+				return true;
+			}
+		}
+	}
+
+	public void onSuccess() {
+		if (getState() == State.HALF_OPEN) {
+			if (this.successfulProbes.incrementAndGet() >= this.halfOpenProbes
+					&& this.state.compareAndSet(State.HALF_OPEN.ordinal(), State.CLOSED.ordinal())) {
+				reset();
+			}
+			return;
+		}
+		record(false);
+	}
+
+	public void onFailure() {
+		State current = getState();
+		if (current == State.HALF_OPEN) {
+			open(State.HALF_OPEN);
+			return;
+		}
+		if (current == State.CLOSED) {
+			record(true);
+			long[] calls = count();
+			long total = calls[0] + calls[1];
+			if (total >= this.minimumCalls && calls[1] >= this.failureRateThreshold * total) {
+				open(State.CLOSED);
+			}
+		}
+	}
+
+	/**
+	 * @return seconds until the circuit may be probed again, at least 1
+	 */
+	public long getRetryAfterSeconds() {
+		long remaining = this.openUntil.get() - this.nanoTime.getAsLong();
+		return Math.max(1L, (long) Math.ceil(remaining / 1_000_000_000d));
+	}
+
+	public State getState() {
+		return State.values()[this.state.get()];
+	}
+
+	private void open(State from) {
+		this.openUntil.set(this.nanoTime.getAsLong() + this.openNanos);
+		this.state.compareAndSet(from.ordinal(), State.OPEN.ordinal());
+	}
+
+	private void record(boolean failure) {
+		long epoch = this.nanoTime.getAsLong() / this.bucketNanos;
+		int index = (int) Math.floorMod(epoch, (long) BUCKETS);
+		long current = this.epochs.get(index);
+		if (current != epoch && this.epochs.compareAndSet(index, current, epoch)) {
+			this.successes.set(index, 0);
+			this.failures.set(index, 0);
+		}
+		if (failure) {
+			this.failures.incrementAndGet(index);
+		} else {
+			this.successes.incrementAndGet(index);
+		}
+	}
+
+	private long[] count() {
+		long epoch = this.nanoTime.getAsLong() / this.bucketNanos;
+		long[] calls = new long[2];
+		for (int i = 0; i < BUCKETS; i++) {
+			if (epoch - this.epochs.get(i) < BUCKETS) {
+				calls[0] += this.successes.get(i);
+				calls[1] += this.failures.get(i);
+			}
+		}
+		return calls;
+	}
+
+	private void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			this.successes.set(i, 0);
+			this.failures.set(i, 0);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.dms.useful.circuit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.util.Assert;
+
+import com.dms.useful.exception.DatabaseUnavailableException;
+
+/**
+ * Feeds a {@link DataAccessCircuitBreaker} with the outcome of repository
+ * calls and fails fast, with {@link DatabaseUnavailableException}, while it
+ * is open.
+ * 
+ * <pre>
+ * The advice is added first in the repository proxy, so it sees the
+ * DataAccessException already translated and rejects before a transaction
+ * or a connection is requested.
+ * 
+ * Ex.:
+ * &#64;Bean
+ * public RepositoryFactoryCustomizer circuitBreakerCustomizer() {
+ *     DataAccessCircuitBreakerInterceptor interceptor =
+ *             new DataAccessCircuitBreakerInterceptor(new DataAccessCircuitBreaker());
+ *     return factory -&gt; factory.addRepositoryProxyPostProcessor(interceptor);
+ * }
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class DataAccessCircuitBreakerInterceptor implements MethodInterceptor, RepositoryProxyPostProcessor {
+
+	private final DataAccessCircuitBreaker circuitBreaker;
+
+	public DataAccessCircuitBreakerInterceptor(DataAccessCircuitBreaker circuitBreaker) {
+		Assert.notNull(circuitBreaker, "DataAccessCircuitBreaker is required");
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	@Override
+	public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+		factory.addAdvice(0, this);
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		if (!this.circuitBreaker.tryAcquire()) {
+			throw new DatabaseUnavailableException(this.circuitBreaker.getRetryAfterSeconds());
+		}
+		try {
+			Object result = invocation.proceed();
+			this.circuitBreaker.onSuccess();
+			return result;
+		} catch (Throwable ex) {
+			if (this.circuitBreaker.isFailure(ex)) {
+				this.circuitBreaker.onFailure();
+			} else {
+				this.circuitBreaker.onSuccess();
+			}
+			throw ex;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.dms.useful.deadline;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import com.dms.useful.exception.RequestDeadlineExceededException;
+
+/**
+ * Aplica o tempo restante do {@link RequestDeadline} como timeout das
+ * consultas JPA feitas pelos repositórios.
+ * 
+ * <pre>
+ * O hint javax.persistence.query.timeout é definido no EntityManager ligado
+ * à thread, e o provider (Hibernate) o aplica a toda consulta criada por ele,
+ * inclusive as declaradas no repositório (@Query, consultas derivadas).
+ * 
+ * Dentro de uma transação, o EntityManager é o da transação. Fora dela (uma
+ * consulta declarada sem @Transactional, ou open-in-view desligado), não há
+ * EntityManager ligado e o EntityManager compartilhado abriria um novo a
+ * cada consulta, sem o hint. Nesse caso o interceptor abre um EntityManager,
+ * liga-o à thread durante a chamada e o fecha ao final, como o
+ * OpenEntityManagerInViewInterceptor faz para a requisição.
+ * 
+ * Uma chamada feita após o prazo é rejeitada com
+ * RequestDeadlineExceededException, sem tocar o banco. Não é uma
+ * DataAccessException, logo o DataAccessCircuitBreaker não a conta.
+ * Chamadas sem prazo não são alteradas.
+ * 
+ * Timeouts de consulta JDBC são segundos inteiros e o Hibernate arredonda o
+ * hint: 400 ms restantes virariam 0, isto é, nenhum timeout. O hint é então
+ * arredondado para cima, em segundos inteiros e no mínimo 1 segundo, para
+ * que a consulta nunca seja cortada antes do prazo.
+ * 
+ * Ex.:
+ * &#64;Bean
+ * public RepositoryFactoryCustomizer queryTimeoutCustomizer(EntityManagerFactory entityManagerFactory) {
+ *     QueryTimeoutInterceptor interceptor = new QueryTimeoutInterceptor(entityManagerFactory);
+ *     return factory -&gt; factory.addRepositoryProxyPostProcessor(interceptor);
+ * }
+ * 
+ * Teste de integração com Hibernate e H2: mvn test -Phibernate
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class QueryTimeoutInterceptor implements MethodInterceptor, RepositoryProxyPostProcessor {
+
+	public static final String QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout";
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * @param entityManagerFactory a mesma {@code EntityManagerFactory} usada
+	 *                             pelos repositórios e pelo
+	 *                             JpaTransactionManager
+	 */
+	public QueryTimeoutInterceptor(EntityManagerFactory entityManagerFactory) {
+		Assert.notNull(entityManagerFactory, "EntityManagerFactory is required");
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	@Override
+	public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+		factory.addAdvice(this);
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		if (!RequestDeadline.isActive()) {
+			return invocation.proceed();
+		}
+		long remaining = RequestDeadline.remainingMillis();
+		if (remaining <= 0) {
+			throw new RequestDeadlineExceededException(
+					String.format("Request deadline exceeded before %s", invocation.getMethod().getName()));
+		}
+		EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(this.entityManagerFactory);
+		if (entityManager != null) {
+			entityManager.setProperty(QUERY_TIMEOUT_HINT, timeoutMillis(remaining));
+			return invocation.proceed();
+		}
+		entityManager = this.entityManagerFactory.createEntityManager();
+		TransactionSynchronizationManager.bindResource(this.entityManagerFactory, new EntityManagerHolder(entityManager));
+		try {
+			entityManager.setProperty(QUERY_TIMEOUT_HINT, timeoutMillis(remaining));
+			return invocation.proceed();
+		} finally {
+			TransactionSynchronizationManager.unbindResource(this.entityManagerFactory);
+			EntityManagerFactoryUtils.closeEntityManager(entityManager);
+		}
+	}
+
+	/**
+	 * @return o tempo restante arredondado para cima em segundos inteiros, em
+	 *         milissegundos
+	 */
+	static int timeoutMillis(long remainingMillis) {
+		long seconds = Math.max(1, remainingMillis / 1000 + (remainingMillis % 1000 == 0 ? 0 : 1));
+		return (int) Math.min(seconds, Integer.MAX_VALUE / 1000) * 1000;
+	}
+}
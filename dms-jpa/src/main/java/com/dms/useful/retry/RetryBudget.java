@@ -0,0 +1,147 @@
+package com.dms.useful.retry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@code RetryBudget} limita as novas tentativas a uma fração das chamadas,
+ * compartilhada por todas as threads, para que um pico de contenção não vire
+ * uma tempestade de novas tentativas.
+ * 
+ * <pre>
+ * Cada chamada deposita {@code ratio} de uma nova tentativa; cada nova
+ * tentativa retira uma. Um mínimo por segundo está sempre disponível, para
+ * que o tráfego baixo ainda possa repetir. O saldo é limitado a 10 segundos
+ * do mínimo mais os depósitos dos últimos 10 segundos (contados em
+ * intervalos de 1 segundo), e é mantido em milésimos de tentativa em um
+ * AtomicLong (CAS).
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class RetryBudget {
+
+	private static final long UNIT = 1000;
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+	private static final int BUCKETS = 10;
+
+	private final long deposit;
+	private final long minPerSecond;
+	private final long reserve;
+	private final LongSupplier nanoTime;
+
+	private final AtomicLong balance;
+	private final AtomicLong lastRefill;
+	private final AtomicLongArray epochs = new AtomicLongArray(BUCKETS);
+	private final AtomicLongArray calls = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * Novas tentativas de até 10% das chamadas, com um mínimo de 10 por
+	 * segundo.
+	 */
+	public RetryBudget() {
+		this(0.1, 10);
+	}
+
+	/**
+	 * @param ratio               novas tentativas permitidas por chamada (0 a 1)
+	 * @param minRetriesPerSecond novas tentativas sempre permitidas por segundo
+	 */
+	public RetryBudget(double ratio, int minRetriesPerSecond) {
+		this(ratio, minRetriesPerSecond, System::nanoTime);
+	}
+
+	RetryBudget(double ratio, int minRetriesPerSecond, LongSupplier nanoTime) {
+		Assert.isTrue(ratio >= 0 && ratio <= 1, "Ratio must be between 0 and 1");
+		Assert.isTrue(minRetriesPerSecond >= 0, "MinRetriesPerSecond must not be negative");
+		this.deposit = Math.round(ratio * UNIT);
+		this.minPerSecond = minRetriesPerSecond * UNIT;
+		this.reserve = this.minPerSecond * BUCKETS;
+		this.nanoTime = nanoTime;
+		this.balance = new AtomicLong(this.minPerSecond);
+		this.lastRefill = new AtomicLong(nanoTime.getAsLong());
+	}
+
+	/**
+	 * Registra uma chamada (primeira tentativa).
+	 */
+	public void deposit() {
+		if (this.deposit > 0) {
+			record();
+			add(this.deposit);
+		}
+	}
+
+	/**
+	 * Pede permissão para uma nova tentativa.
+	 * 
+	 * @return {@code false} se o orçamento se esgotou
+	 */
+	public boolean tryWithdraw() {
+		refill();
+		for (;;) {
+			long current = this.balance.get();
+			if (current < UNIT) {
+				return false;
+			}
+			if (this.balance.compareAndSet(current, current - UNIT)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @return novas tentativas disponíveis agora
+	 */
+	public long getAvailable() {
+		refill();
+		return this.balance.get() / UNIT;
+	}
+
+	private void refill() {
+		if (this.minPerSecond == 0) {
+			return;
+		}
+		long now = this.nanoTime.getAsLong();
+		long last = this.lastRefill.get();
+		long amount = (now - last) / (NANOS_PER_SECOND / this.minPerSecond);
+		if (amount > 0 && this.lastRefill.compareAndSet(last, now)) {
+			add(amount);
+		}
+	}
+
+	private void add(long amount) {
+		long capacity = capacity();
+		this.balance.accumulateAndGet(amount, (current, delta) -> Math.min(current + delta, capacity));
+	}
+
+	private void record() {
+		long epoch = this.nanoTime.getAsLong() / NANOS_PER_SECOND;
+		int index = (int) Math.floorMod(epoch, (long) BUCKETS);
+		long current = this.epochs.get(index);
+		if (current != epoch && this.epochs.compareAndSet(index, current, epoch)) {
+			this.calls.set(index, 0);
+		}
+		this.calls.incrementAndGet(index);
+	}
+
+	/**
+	 * 10 segundos do mínimo mais os depósitos dos últimos 10 segundos, no
+	 * mínimo uma nova tentativa.
+	 */
+	private long capacity() {
+		long epoch = this.nanoTime.getAsLong() / NANOS_PER_SECOND;
+		long deposits = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			if (epoch - this.epochs.get(i) < BUCKETS) {
+				deposits += this.calls.get(i);
+			}
+		}
+		return Math.max(this.reserve + deposits * this.deposit, UNIT);
+	}
+}
@@ -0,0 +1,153 @@
+package com.dms.useful.retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import com.dms.useful.deadline.RequestDeadline;
+import com.dms.useful.exception.DataAccessContentionException;
+
+/**
+ * Repete chamadas de repositórios ou transacionais que falharam por uma
+ * falha transitória de acesso a dados (deadlock, espera por lock,
+ * CannotAcquireLock) e lança {@link DataAccessContentionException} (503 com
+ * Retry-After) quando as novas tentativas se esgotam.
+ * 
+ * <pre>
+ * - backoff com jitter decorrelacionado: espera = min(cap, random(base, 3 x anterior));
+ * - um RetryBudget compartilhado limita as novas tentativas a uma fração
+ *   das chamadas;
+ * - a nova tentativa precisa caber no RequestDeadline, se houver;
+ * - a chamada só é repetida fora de uma transação: dentro dela, a transação
+ *   já está marcada para rollback e a falha segue até a fronteira externa.
+ *   O interceptor deve envolver a transação.
+ * 
+ * Timeouts de consulta (prazo) e falhas de lock otimista (dado desatualizado)
+ * não são repetidos.
+ * 
+ * Repositórios, adicionado primeiro no proxy, antes da transação:
+ * &#64;Bean
+ * public RepositoryFactoryCustomizer retryCustomizer() {
+ *     TransientDataAccessRetryInterceptor interceptor = new TransientDataAccessRetryInterceptor();
+ *     return factory -&gt; factory.addRepositoryProxyPostProcessor(interceptor);
+ * }
+ * 
+ * Serviços &#64;Transactional, com um advisor ordenado antes do advisor da
+ * transação (ex.: &#64;EnableTransactionManagement(order = 0) e advisor com order -1).
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class TransientDataAccessRetryInterceptor implements MethodInterceptor, RepositoryProxyPostProcessor {
+
+	private final int maxAttempts;
+	private final long baseMillis;
+	private final long capMillis;
+	private final RetryBudget budget;
+
+	/**
+	 * 3 tentativas, backoff de 20 ms a 500 ms, {@link RetryBudget} padrão.
+	 */
+	public TransientDataAccessRetryInterceptor() {
+		this(3, Duration.ofMillis(20), Duration.ofMillis(500), new RetryBudget());
+	}
+
+	/**
+	 * @param maxAttempts tentativas, incluindo a primeira chamada
+	 * @param base        espera mínima entre as tentativas
+	 * @param cap         espera máxima entre as tentativas
+	 * @param budget      orçamento de novas tentativas compartilhado pelas
+	 *                    chamadas
+	 */
+	public TransientDataAccessRetryInterceptor(int maxAttempts, Duration base, Duration cap, RetryBudget budget) {
+		Assert.isTrue(maxAttempts > 0, "MaxAttempts must be greater than zero");
+		Assert.isTrue(base != null && !base.isNegative(), "Base must not be negative");
+		Assert.isTrue(cap != null && cap.compareTo(base) >= 0, "Cap must not be less than base");
+		Assert.notNull(budget, "RetryBudget is required");
+		this.maxAttempts = maxAttempts;
+		this.baseMillis = base.toMillis();
+		this.capMillis = cap.toMillis();
+		this.budget = budget;
+	}
+
+	@Override
+	public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+		factory.addAdvice(0, this);
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return invocation.proceed();
+		}
+		this.budget.deposit();
+		long delay = this.baseMillis;
+		for (int attempt = 1;; attempt++) {
+			try {
+				return attempt(invocation).proceed();
+			} catch (TransientDataAccessException ex) {
+				if (!isRetryable(ex)) {
+					throw ex;
+				}
+				delay = nextDelay(delay);
+				if (attempt >= this.maxAttempts || RequestDeadline.remainingMillis() <= delay
+						|| !this.budget.tryWithdraw()) {
+					throw new DataAccessContentionException(attempt, retryAfterSeconds(delay), ex);
+				}
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new DataAccessContentionException(attempt, retryAfterSeconds(delay), ex);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Invocação de uma tentativa. {@code proceed()} avança a cadeia de
+	 * interceptors da invocação: cada tentativa roda em um clone, para que os
+	 * advices internos (transação, tradução de exceções,
+	 * QueryTimeoutInterceptor) rodem de novo, e não só o target.
+	 */
+	private static MethodInvocation attempt(MethodInvocation invocation) {
+		if (invocation instanceof ProxyMethodInvocation) {
+			return ((ProxyMethodInvocation) invocation).invocableClone();
+		}
+		return invocation;
+	}
+
+	/**
+	 * Se a falha pode ter sucesso em uma nova tentativa.
+	 */
+	protected boolean isRetryable(TransientDataAccessException ex) {
+		return !(ex instanceof QueryTimeoutException) && !(ex instanceof OptimisticLockingFailureException);
+	}
+
+	long nextDelay(long previous) {
+		long upper = Math.min(this.capMillis, Math.max(this.baseMillis, previous * 3));
+		if (upper <= this.baseMillis) {
+			return this.baseMillis;
+		}
+		return ThreadLocalRandom.current().nextLong(this.baseMillis, upper + 1);
+	}
+
+	/**
+	 * A próxima espera que o cliente deve respeitar, no mínimo um segundo.
+	 */
+	private static long retryAfterSeconds(long delayMillis) {
+		return Math.max(1L, (delayMillis + 999) / 1000);
+	}
+}
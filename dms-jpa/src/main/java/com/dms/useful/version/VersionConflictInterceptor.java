@@ -0,0 +1,112 @@
+package com.dms.useful.version;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.util.Assert;
+
+import com.dms.useful.exception.VersionConflictException;
+
+/**
+ * Traduz {@link ObjectOptimisticLockingFailureException} em
+ * {@link VersionConflictException} (409) com o identificador e a versão
+ * atual da entidade, lida por uma consulta só da versão.
+ * 
+ * <pre>
+ * SELECT e.version FROM Entity e WHERE e.id = :id
+ * 
+ * A consulta roda após a transação que falhou, em uma nova (ou sem
+ * transação), logo o interceptor deve envolver a transação.
+ * 
+ * Repositórios, adicionado primeiro no proxy, antes da transação:
+ * &#64;Bean
+ * public RepositoryFactoryCustomizer versionConflictCustomizer(EntityManager entityManager) {
+ *     VersionConflictInterceptor interceptor = new VersionConflictInterceptor(entityManager);
+ *     return factory -&gt; factory.addRepositoryProxyPostProcessor(interceptor);
+ * }
+ * 
+ * Serviços &#64;Transactional, com um advisor ordenado antes do advisor da
+ * transação (ex.: &#64;EnableTransactionManagement(order = 0) e advisor com order -1).
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class VersionConflictInterceptor implements MethodInterceptor, RepositoryProxyPostProcessor {
+
+	private final EntityManager entityManager;
+
+	/**
+	 * @param entityManager EntityManager compartilhado (proxy) da aplicação
+	 */
+	public VersionConflictInterceptor(EntityManager entityManager) {
+		Assert.notNull(entityManager, "EntityManager is required");
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+		factory.addAdvice(0, this);
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		try {
+			return invocation.proceed();
+		} catch (ObjectOptimisticLockingFailureException ex) {
+			throw toVersionConflict(ex);
+		}
+	}
+
+	VersionConflictException toVersionConflict(ObjectOptimisticLockingFailureException ex) {
+		Class<?> type = ex.getPersistentClass();
+		Object id = ex.getIdentifier();
+		String entity = type != null ? type.getSimpleName() : ex.getPersistentClassName();
+		Object version = type != null && id != null ? findCurrentVersion(type, id) : null;
+		return new VersionConflictException(entity, id, version, ex);
+	}
+
+	/**
+	 * Lê só o atributo {@code @Version} da entidade.
+	 * 
+	 * @return a versão atual, ou {@code null} quando a entidade não tem
+	 *         versão, foi excluída ou a consulta falhou
+	 */
+	@Nullable
+	protected Object findCurrentVersion(Class<?> type, Object id) {
+		try {
+			EntityType<?> entityType = this.entityManager.getMetamodel().entity(type);
+			String versionName = null;
+			String idName = null;
+			for (SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()) {
+				if (attribute.isVersion()) {
+					versionName = attribute.getName();
+				} else if (attribute.isId()) {
+					idName = attribute.getName();
+				}
+			}
+			if (versionName == null || idName == null) {
+				return null;
+			}
+			String jpql = "SELECT e." + versionName + " FROM " + entityType.getName() + " e WHERE e." + idName + " = :id";
+			List<?> result = this.entityManager.createQuery(jpql)
+					.setParameter("id", id)
+					.setMaxResults(1)
+					.getResultList();
+			return result.isEmpty() ? null : result.get(0);
+		} catch (RuntimeException e) {
+			// a resposta 409 não depende da versão
+			return null;
+		}
+	}
+}
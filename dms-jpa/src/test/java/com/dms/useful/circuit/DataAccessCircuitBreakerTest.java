@@ -0,0 +1,126 @@
+package com.dms.useful.circuit;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import com.dms.useful.circuit.DataAccessCircuitBreaker.State;
+import com.dms.useful.exception.DatabaseUnavailableException;
+
+public class DataAccessCircuitBreakerTest {
+
+	private long now;
+	private DataAccessCircuitBreaker circuitBreaker;
+
+	public interface Repository {
+		String find();
+	}
+
+	@Before
+	public void setup() {
+		this.now = TimeUnit.HOURS.toNanos(1);
+		this.circuitBreaker = new DataAccessCircuitBreaker(0.5, 4, Duration.ofSeconds(10), Duration.ofSeconds(30), 2,
+				() -> this.now);
+	}
+
+	private void calls(int successes, int failures) {
+		for (int i = 0; i < successes; i++) {
+			circuitBreaker.onSuccess();
+		}
+		for (int i = 0; i < failures; i++) {
+			circuitBreaker.onFailure();
+		}
+	}
+
+	@Test
+	public void shouldCountOnlyDegradationFailures() throws Exception {
+		assertTrue(circuitBreaker.isFailure(new DataAccessResourceFailureException("down")));
+		assertTrue(circuitBreaker.isFailure(new QueryTimeoutException("timeout")));
+		assertFalse(circuitBreaker.isFailure(new CannotAcquireLockException("lock")));
+		assertFalse(circuitBreaker.isFailure(new DataIntegrityViolationException("duplicate")));
+	}
+
+	@Test
+	public void shouldStayClosedUnderTheMinimumCalls() throws Exception {
+		calls(0, 3);
+
+		assertEquals(State.CLOSED, circuitBreaker.getState());
+	}
+
+	@Test
+	public void shouldOpenOverTheFailureRate() throws Exception {
+		calls(2, 2);
+
+		assertEquals(State.OPEN, circuitBreaker.getState());
+		assertFalse(circuitBreaker.tryAcquire());
+		assertEquals(30, circuitBreaker.getRetryAfterSeconds());
+	}
+
+	@Test
+	public void shouldForgetCallsOutOfTheWindow() throws Exception {
+		calls(0, 3);
+		this.now += TimeUnit.SECONDS.toNanos(11);
+		calls(3, 1);
+
+		assertEquals(State.CLOSED, circuitBreaker.getState());
+	}
+
+	@Test
+	public void shouldCloseAfterSuccessfulProbes() throws Exception {
+		calls(0, 4);
+		this.now += TimeUnit.SECONDS.toNanos(30);
+
+		assertTrue(circuitBreaker.tryAcquire());
+		assertTrue(circuitBreaker.tryAcquire());
+		assertFalse(circuitBreaker.tryAcquire());
+		assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+
+		calls(2, 0);
+		assertEquals(State.CLOSED, circuitBreaker.getState());
+	}
+
+	@Test
+	public void shouldOpenAgainWhenAProbeFails() throws Exception {
+		calls(0, 4);
+		this.now += TimeUnit.SECONDS.toNanos(30);
+
+		assertTrue(circuitBreaker.tryAcquire());
+		calls(0, 1);
+
+		assertEquals(State.OPEN, circuitBreaker.getState());
+	}
+
+	@Test
+	public void shouldFailFastThroughTheInterceptor() throws Exception {
+		ProxyFactory factory = new ProxyFactory(Repository.class, new DataAccessCircuitBreakerInterceptor(circuitBreaker));
+		factory.setTarget((Repository) () -> {
+			throw new DataAccessResourceFailureException("down");
+		});
+		Repository repository = (Repository) factory.getProxy();
+
+		for (int i = 0; i < 4; i++) {
+			try {
+				repository.find();
+				fail("DataAccessResourceFailureException expected");
+			} catch (DataAccessResourceFailureException e) {
+				// the database is down
+			}
+		}
+
+		try {
+			repository.find();
+			fail("DatabaseUnavailableException expected");
+		} catch (DatabaseUnavailableException e) {
+			assertEquals(30, e.getRetryAfterSeconds());
+		}
+	}
+}
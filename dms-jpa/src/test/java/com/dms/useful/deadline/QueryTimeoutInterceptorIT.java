@@ -0,0 +1,113 @@
+package com.dms.useful.deadline;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.Properties;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Id;
+import javax.persistence.PersistenceException;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs only with the hibernate profile: mvn test -Phibernate
+ */
+public class QueryTimeoutInterceptorIT {
+
+	private static LocalContainerEntityManagerFactoryBean factoryBean;
+	private static EntityManagerFactory entityManagerFactory;
+	private static ProductRepository repository;
+
+	@Entity
+	public static class Product {
+		@Id
+		private Long id;
+		private String name;
+	}
+
+	public interface ProductRepository extends JpaRepository<Product, Long> {
+
+		// declared query, without @Transactional
+		@Query(value = "select count(*) from system_range(1, 100000000000) r where mod(r.x, 7) = 3", nativeQuery = true)
+		long countForever();
+
+		@Query(value = "select count(*) from system_range(1, 10) r where mod(r.x, 7) = 3", nativeQuery = true)
+		long countQuickly();
+	}
+
+	@BeforeClass
+	public static void setupClass() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:deadline;DB_CLOSE_DELAY=-1");
+		Properties jpaProperties = new Properties();
+		jpaProperties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+		factoryBean = new LocalContainerEntityManagerFactoryBean();
+		factoryBean.setDataSource(dataSource);
+		factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		factoryBean.setPackagesToScan(Product.class.getPackage().getName());
+		factoryBean.setJpaProperties(jpaProperties);
+		factoryBean.afterPropertiesSet();
+		entityManagerFactory = factoryBean.getObject();
+
+		JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(
+				SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+		repositoryFactory.addRepositoryProxyPostProcessor(new QueryTimeoutInterceptor(entityManagerFactory));
+		repository = repositoryFactory.getRepository(ProductRepository.class);
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+		factoryBean.destroy();
+	}
+
+	@After
+	public void tearDown() {
+		RequestDeadline.clear();
+	}
+
+	@Test
+	public void shouldNotChangeQueriesWithoutDeadline() {
+		assertEquals(2, repository.countQuickly());
+	}
+
+	@Test
+	public void shouldCutDeclaredQueriesOutsideTransactions() {
+		RequestDeadline.start(Duration.ofSeconds(1));
+
+		long start = System.nanoTime();
+		try {
+			repository.countForever();
+			fail("The query should time out");
+		} catch (PersistenceException e) {
+			assertTrue(Duration.ofNanos(System.nanoTime() - start).getSeconds() < 10);
+		}
+	}
+
+	@Test
+	public void shouldCutQueriesInsideTransactions() {
+		TransactionTemplate transaction = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+		RequestDeadline.start(Duration.ofSeconds(1));
+
+		long start = System.nanoTime();
+		try {
+			transaction.execute(status -> repository.countForever());
+			fail("The query should time out");
+		} catch (PersistenceException e) {
+			assertTrue(Duration.ofNanos(System.nanoTime() - start).getSeconds() < 10);
+		}
+	}
+}
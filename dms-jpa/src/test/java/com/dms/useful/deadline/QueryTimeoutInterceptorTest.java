@@ -0,0 +1,217 @@
+package com.dms.useful.deadline;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.dms.useful.circuit.DataAccessCircuitBreaker;
+import com.dms.useful.circuit.DataAccessCircuitBreakerInterceptor;
+import com.dms.useful.exception.RequestDeadlineExceededException;
+
+public class QueryTimeoutInterceptorTest {
+
+	private final Map<String, Object> properties = new HashMap<>();
+	private EntityManager entityManager;
+	private EntityManagerFactory entityManagerFactory;
+	private Repository repository;
+	private int calls;
+	private int closed;
+
+	public interface Repository {
+		String find();
+	}
+
+	@Before
+	public void setup() {
+		this.entityManager = (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { EntityManager.class }, (proxy, method, args) -> {
+					if (method.getName().equals("setProperty")) {
+						properties.put((String) args[0], args[1]);
+					} else if (method.getName().equals("close")) {
+						closed++;
+					} else if (method.getName().equals("isOpen")) {
+						return closed == 0;
+					}
+					return null;
+				});
+		this.entityManagerFactory = (EntityManagerFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { EntityManagerFactory.class }, (proxy, method, args) -> {
+					if (method.getName().equals("createEntityManager")) {
+						return this.entityManager;
+					}
+					if (method.getName().equals("equals")) {
+						return proxy == args[0];
+					}
+					if (method.getName().equals("hashCode")) {
+						return System.identityHashCode(proxy);
+					}
+					return null;
+				});
+		ProxyFactory factory = new ProxyFactory((Repository) () -> {
+			calls++;
+			// o repositório usa o EntityManager ligado à thread
+			assertTrue(!RequestDeadline.isActive()
+					|| TransactionSynchronizationManager.hasResource(this.entityManagerFactory));
+			return "product";
+		});
+		factory.addInterface(Repository.class);
+		new QueryTimeoutInterceptor(this.entityManagerFactory).postProcess(factory, null);
+		this.repository = (Repository) factory.getProxy();
+	}
+
+	@After
+	public void tearDown() {
+		RequestDeadline.clear();
+		if (TransactionSynchronizationManager.hasResource(this.entityManagerFactory)) {
+			TransactionSynchronizationManager.unbindResource(this.entityManagerFactory);
+		}
+	}
+
+	@Test
+	public void shouldNotChangeCallsWithoutDeadline() {
+		assertEquals("product", repository.find());
+		assertTrue(properties.isEmpty());
+	}
+
+	@Test
+	public void shouldApplyTheRemainingBudgetAsQueryTimeout() {
+		RequestDeadline.start(Duration.ofSeconds(3));
+
+		assertEquals("product", repository.find());
+
+		assertEquals(3000, properties.get(QueryTimeoutInterceptor.QUERY_TIMEOUT_HINT));
+	}
+
+	@Test
+	public void shouldBindAnEntityManagerOutsideTransactions() {
+		RequestDeadline.start(Duration.ofSeconds(3));
+
+		assertEquals("product", repository.find());
+
+		assertEquals(3000, properties.get(QueryTimeoutInterceptor.QUERY_TIMEOUT_HINT));
+		assertFalse(TransactionSynchronizationManager.hasResource(this.entityManagerFactory));
+		assertEquals(1, closed);
+	}
+
+	@Test
+	public void shouldUseTheEntityManagerOfTheTransaction() {
+		Map<String, Object> transactional = new HashMap<>();
+		EntityManager bound = (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { EntityManager.class }, (proxy, method, args) -> {
+					if (method.getName().equals("setProperty")) {
+						transactional.put((String) args[0], args[1]);
+					}
+					return null;
+				});
+		TransactionSynchronizationManager.bindResource(this.entityManagerFactory, new EntityManagerHolder(bound));
+		RequestDeadline.start(Duration.ofSeconds(2));
+
+		assertEquals("product", repository.find());
+
+		assertEquals(2000, transactional.get(QueryTimeoutInterceptor.QUERY_TIMEOUT_HINT));
+		assertTrue(properties.isEmpty());
+		assertTrue(TransactionSynchronizationManager.hasResource(this.entityManagerFactory));
+		assertEquals(0, closed);
+	}
+
+	@Test
+	public void shouldRoundTheTimeoutUpToWholeSeconds() {
+		assertEquals(1000, QueryTimeoutInterceptor.timeoutMillis(1));
+		assertEquals(1000, QueryTimeoutInterceptor.timeoutMillis(400));
+		assertEquals(2000, QueryTimeoutInterceptor.timeoutMillis(1001));
+		assertEquals(Integer.MAX_VALUE / 1000 * 1000, QueryTimeoutInterceptor.timeoutMillis(Long.MAX_VALUE - 1));
+	}
+
+	@Test
+	public void shouldNotOpenTheCircuitForExpiredDeadlines() throws Exception {
+		DataAccessCircuitBreaker circuitBreaker = new DataAccessCircuitBreaker(0.5, 1, Duration.ofSeconds(10),
+				Duration.ofSeconds(30), 1);
+		ProxyFactory factory = new ProxyFactory((Repository) () -> {
+			throw new QueryTimeoutException("canceling statement due to user request");
+		});
+		factory.addInterface(Repository.class);
+		new QueryTimeoutInterceptor(this.entityManagerFactory).postProcess(factory, null);
+		new DataAccessCircuitBreakerInterceptor(circuitBreaker).postProcess(factory, null);
+		Repository slow = (Repository) factory.getProxy();
+
+		RequestDeadline.start(Duration.ofMillis(1));
+		Thread.sleep(5);
+		for (int i = 0; i < 5; i++) {
+			try {
+				slow.find();
+				fail("The deadline has passed");
+			} catch (RequestDeadlineExceededException e) {
+				// rejected before the database
+			}
+		}
+
+		assertEquals(DataAccessCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+	}
+
+	@Test
+	public void shouldNotCountQueriesCutByTheDeadline() throws Exception {
+		DataAccessCircuitBreaker circuitBreaker = new DataAccessCircuitBreaker(0.5, 1, Duration.ofSeconds(10),
+				Duration.ofSeconds(30), 1);
+		ProxyFactory factory = new ProxyFactory((Repository) () -> {
+			// the database cancels the query when the deadline passes
+			sleep(20);
+			throw new QueryTimeoutException("canceling statement due to user request");
+		});
+		factory.addInterface(Repository.class);
+		new QueryTimeoutInterceptor(this.entityManagerFactory).postProcess(factory, null);
+		new DataAccessCircuitBreakerInterceptor(circuitBreaker).postProcess(factory, null);
+		Repository slow = (Repository) factory.getProxy();
+
+		RequestDeadline.start(Duration.ofMillis(10));
+		try {
+			slow.find();
+			fail("The query should time out");
+		} catch (QueryTimeoutException e) {
+			assertEquals(DataAccessCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		}
+
+		RequestDeadline.clear();
+		try {
+			slow.find();
+			fail("The query should time out");
+		} catch (QueryTimeoutException e) {
+			// without deadline, the timeout is the database's
+			assertEquals(DataAccessCircuitBreaker.State.OPEN, circuitBreaker.getState());
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	public void shouldRejectCallsAfterTheDeadline() throws Exception {
+		RequestDeadline.start(Duration.ofMillis(1));
+		Thread.sleep(5);
+
+		try {
+			repository.find();
+			fail("The deadline has passed");
+		} catch (RequestDeadlineExceededException e) {
+			assertEquals(0, calls);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.dms.useful.retry;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.dms.useful.exception.DataAccessContentionException;
+
+public class TransientDataAccessRetryInterceptorTest {
+
+	private final Deque<RuntimeException> failures = new ArrayDeque<>();
+	private int calls;
+	private int innerCalls;
+
+	public interface Repository {
+		String save();
+	}
+
+	private Repository proxy(TransientDataAccessRetryInterceptor interceptor) {
+		ProxyFactory factory = new ProxyFactory((Repository) () -> {
+			calls++;
+			if (!failures.isEmpty()) {
+				throw failures.pop();
+			}
+			return "saved";
+		});
+		factory.addInterface(Repository.class);
+		// inner advice, like the TransactionInterceptor of the repository
+		factory.addAdvice((MethodInterceptor) invocation -> {
+			innerCalls++;
+			return invocation.proceed();
+		});
+		interceptor.postProcess(factory, null);
+		return (Repository) factory.getProxy();
+	}
+
+	private static TransientDataAccessRetryInterceptor interceptor(int maxAttempts, RetryBudget budget) {
+		return new TransientDataAccessRetryInterceptor(maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5), budget);
+	}
+
+	@After
+	public void tearDown() {
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+	}
+
+	@Test
+	public void shouldRetryDeadlocksAndLockTimeouts() {
+		failures.add(new DeadlockLoserDataAccessException("deadlock", null));
+		failures.add(new CannotAcquireLockException("lock wait timeout"));
+
+		assertEquals("saved", proxy(interceptor(3, new RetryBudget())).save());
+		assertEquals(3, calls);
+	}
+
+	@Test
+	public void shouldRunTheInnerAdviceOnEveryAttempt() {
+		failures.add(new DeadlockLoserDataAccessException("deadlock", null));
+		failures.add(new CannotAcquireLockException("lock wait timeout"));
+
+		proxy(interceptor(3, new RetryBudget())).save();
+
+		assertEquals(3, calls);
+		assertEquals(3, innerCalls);
+	}
+
+	@Test
+	public void shouldThrowContentionWhenTheAttemptsAreExhausted() {
+		for (int i = 0; i < 3; i++) {
+			failures.add(new CannotAcquireLockException("lock wait timeout"));
+		}
+
+		try {
+			proxy(interceptor(3, new RetryBudget())).save();
+			fail("The retries should be exhausted");
+		} catch (DataAccessContentionException e) {
+			assertEquals(3, e.getAttempts());
+			assertEquals(1, e.getRetryAfterSeconds());
+			assertTrue(e.getCause() instanceof CannotAcquireLockException);
+		}
+	}
+
+	@Test
+	public void shouldNotRetryWithoutBudget() {
+		failures.add(new CannotAcquireLockException("lock wait timeout"));
+
+		try {
+			proxy(interceptor(3, new RetryBudget(0, 0))).save();
+			fail("The budget is exhausted");
+		} catch (DataAccessContentionException e) {
+			assertEquals(1, e.getAttempts());
+			assertEquals(1, calls);
+		}
+	}
+
+	@Test
+	public void shouldNotRetryTimeoutsOrStaleData() {
+		Repository repository = proxy(interceptor(3, new RetryBudget()));
+		failures.add(new QueryTimeoutException("timeout"));
+		failures.add(new OptimisticLockingFailureException("stale"));
+
+		assertThrows(QueryTimeoutException.class, repository::save);
+		assertThrows(OptimisticLockingFailureException.class, repository::save);
+		assertEquals(2, calls);
+	}
+
+	@Test
+	public void shouldNotRetryInsideATransaction() {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		failures.add(new CannotAcquireLockException("lock wait timeout"));
+
+		assertThrows(CannotAcquireLockException.class, proxy(interceptor(3, new RetryBudget()))::save);
+		assertEquals(1, calls);
+	}
+
+	@Test
+	public void shouldKeepTheDelayBetweenBaseAndCap() {
+		TransientDataAccessRetryInterceptor interceptor = new TransientDataAccessRetryInterceptor(3,
+				Duration.ofMillis(10), Duration.ofMillis(100), new RetryBudget());
+		long delay = 10;
+		for (int i = 0; i < 100; i++) {
+			delay = interceptor.nextDelay(delay);
+			assertTrue(delay >= 10 && delay <= 100);
+		}
+	}
+
+	@Test
+	public void shouldLimitRetriesToTheBudget() {
+		long[] now = { 0 };
+		RetryBudget budget = new RetryBudget(0.5, 1, () -> now[0]);
+
+		assertTrue(budget.tryWithdraw());
+		assertFalse(budget.tryWithdraw());
+
+		budget.deposit();
+		budget.deposit();
+		assertTrue(budget.tryWithdraw());
+		assertFalse(budget.tryWithdraw());
+
+		now[0] += TimeUnit.SECONDS.toNanos(1);
+		assertTrue(budget.tryWithdraw());
+	}
+
+	@Test
+	public void shouldSizeTheBudgetFromTheDeposits() {
+		long[] now = { 0 };
+		RetryBudget budget = new RetryBudget(0.1, 1, () -> now[0]);
+		for (int i = 0; i < 1000; i++) {
+			budget.deposit();
+		}
+
+		// 10 seconds of the minimum (10) would cap it; the 1000 calls add 100 retries
+		assertEquals(101, budget.getAvailable());
+
+		now[0] += TimeUnit.SECONDS.toNanos(10);
+		budget.deposit();
+		// the old deposits left the window: back to the minimum
+		assertEquals(10, budget.getAvailable());
+	}
+}
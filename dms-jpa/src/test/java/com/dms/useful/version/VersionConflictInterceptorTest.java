@@ -0,0 +1,149 @@
+package com.dms.useful.version;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.dms.useful.exception.VersionConflictException;
+
+public class VersionConflictInterceptorTest {
+
+	private final Map<String, Object> parameters = new HashMap<>();
+	private String jpql;
+	private List<?> result = Collections.singletonList(7L);
+	private Repository repository;
+
+	public static class Product {
+	}
+
+	public interface Repository {
+		String save();
+	}
+
+	@Before
+	public void setup() {
+		EntityType<?> entityType = stub(EntityType.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "getName":
+				return "Product";
+			case "getSingularAttributes":
+				return new LinkedHashSet<>(Arrays.asList(attribute("id", true, false),
+						attribute("name", false, false), attribute("version", false, true)));
+			default:
+				return null;
+			}
+		});
+		Metamodel metamodel = stub(Metamodel.class, (proxy, method, args) -> {
+			if (args[0] != Product.class) {
+				throw new IllegalArgumentException("Not an entity");
+			}
+			return entityType;
+		});
+		EntityManager entityManager = stub(EntityManager.class, (proxy, method, args) -> {
+			if (method.getName().equals("getMetamodel")) {
+				return metamodel;
+			}
+			this.jpql = (String) args[0];
+			return stub(Query.class, (query, queryMethod, queryArgs) -> {
+				if (queryMethod.getName().equals("setParameter")) {
+					parameters.put((String) queryArgs[0], queryArgs[1]);
+				}
+				return queryMethod.getName().equals("getResultList") ? result : query;
+			});
+		});
+
+		ProxyFactory factory = new ProxyFactory((Repository) () -> {
+			throw new ObjectOptimisticLockingFailureException(Product.class, 42L);
+		});
+		factory.addInterface(Repository.class);
+		new VersionConflictInterceptor(entityManager).postProcess(factory, null);
+		this.repository = (Repository) factory.getProxy();
+	}
+
+	@Test
+	public void shouldCarryTheCurrentVersion() {
+		try {
+			repository.save();
+			fail("Optimistic locking failure expected");
+		} catch (VersionConflictException e) {
+			assertEquals("Product", e.getEntity());
+			assertEquals(42L, e.getId());
+			assertEquals(7L, e.getCurrentVersion());
+			assertTrue(e.getCause() instanceof ObjectOptimisticLockingFailureException);
+		}
+		assertEquals("SELECT e.version FROM Product e WHERE e.id = :id", jpql);
+		assertEquals(42L, parameters.get("id"));
+	}
+
+	@Test
+	public void shouldNotCarryTheVersionOfDeletedEntity() {
+		this.result = Collections.emptyList();
+		try {
+			repository.save();
+			fail("Optimistic locking failure expected");
+		} catch (VersionConflictException e) {
+			assertEquals(42L, e.getId());
+			assertNull(e.getCurrentVersion());
+		}
+	}
+
+	@Test
+	public void shouldNotQueryUnknownEntities() {
+		VersionConflictInterceptor interceptor = new VersionConflictInterceptor(
+				stub(EntityManager.class, (proxy, method, args) -> {
+					throw new IllegalStateException("No EntityManagerFactory");
+				}));
+
+		VersionConflictException e = interceptor
+				.toVersionConflict(new ObjectOptimisticLockingFailureException(Product.class, 42L));
+
+		assertEquals("Product", e.getEntity());
+		assertNull(e.getCurrentVersion());
+	}
+
+	private static SingularAttribute<?, ?> attribute(String name, boolean id, boolean version) {
+		return stub(SingularAttribute.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "getName":
+				return name;
+			case "isId":
+				return id;
+			case "isVersion":
+				return version;
+			default:
+				return null;
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T stub(Class<T> type, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(VersionConflictInterceptorTest.class.getClassLoader(),
+				new Class<?>[] { type }, (proxy, method, args) -> {
+					if (method.getName().equals("hashCode")) {
+						return System.identityHashCode(proxy);
+					} else if (method.getName().equals("equals")) {
+						return proxy == args[0];
+					}
+					return handler.invoke(proxy, method, args);
+				});
+	}
+}
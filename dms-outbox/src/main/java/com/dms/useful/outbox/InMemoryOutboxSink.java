@@ -0,0 +1,33 @@
+package com.dms.useful.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link OutboxSink} em memória, para testes e desenvolvimento: guarda as
+ * mensagens recebidas.
+ *
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+	private final List<OutboxMessage> messages = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void send(List<OutboxMessage> messages) {
+		this.messages.addAll(messages);
+	}
+
+	/**
+	 * @return cópia das mensagens recebidas, em ordem de entrega
+	 */
+	public List<OutboxMessage> getMessages() {
+		return new ArrayList<>(this.messages);
+	}
+
+	public void clear() {
+		this.messages.clear();
+	}
+}
@@ -0,0 +1,100 @@
+package com.dms.useful.outbox;
+
+import java.net.URI;
+import java.time.Clock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.dms.useful.event.ResourceCreatedEvent;
+
+/**
+ * Grava na tabela de outbox cada {@link ResourceCreatedEvent} publicado
+ * dentro de uma transação.
+ *
+ * <pre>
+ * O evento deve ser publicado dentro do método &#64;Transactional que grava o
+ * recurso, para ser gravado na mesma transação: ou os dois são confirmados,
+ * ou nenhum. Eventos publicados fora de uma transação (ex.: pelo controller,
+ * depois do serviço, só para o header Location) são ignorados pelo outbox:
+ * o recurso já está confirmado e recusar o evento devolveria um 500 para um
+ * recurso criado.
+ *
+ * Ex.:
+ * &#64;Transactional
+ * public Produto salvar(Produto produto) {
+ *     Produto salvo = repository.save(produto);
+ *     publisher.publishEvent(new ProdutoCriadoEvent(this, salvo.getId(), baseUri));
+ *     return salvo;
+ * }
+ *
+ * &#64;Bean
+ * public OutboxEventListener outboxEventListener(JdbcTemplate jdbcTemplate,
+ *         PlatformTransactionManager transactionManager) {
+ *     return new OutboxEventListener(new OutboxRepository(jdbcTemplate), transactionManager);
+ * }
+ * </pre>
+ *
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ * @see OutboxRelay
+ */
+public class OutboxEventListener implements ApplicationListener<ResourceCreatedEvent<?>> {
+
+	private static final Log logger = LogFactory.getLog(OutboxEventListener.class);
+
+	private final OutboxRepository repository;
+	private final TransactionTemplate transactionTemplate;
+	private final Clock clock;
+
+	public OutboxEventListener(OutboxRepository repository, PlatformTransactionManager transactionManager) {
+		this(repository, transactionManager, Clock.systemUTC());
+	}
+
+	OutboxEventListener(OutboxRepository repository, PlatformTransactionManager transactionManager, Clock clock) {
+		Assert.notNull(repository, "OutboxRepository is required");
+		Assert.notNull(transactionManager, "PlatformTransactionManager is required");
+		this.repository = repository;
+		// PROPAGATION_MANDATORY: participa da transação do recurso, que deve existir
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_MANDATORY);
+		this.clock = clock;
+	}
+
+	@Override
+	public void onApplicationEvent(ResourceCreatedEvent<?> event) {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring " + event.getClass().getName() + " published outside a transaction");
+			}
+			return;
+		}
+		OutboxMessage message = toMessage(event);
+		this.transactionTemplate.executeWithoutResult(status -> this.repository.save(message));
+	}
+
+	/**
+	 * Converte o evento em mensagem; sobrescrever para outro tipo de evento
+	 * ou outra location.
+	 */
+	protected OutboxMessage toMessage(ResourceCreatedEvent<?> event) {
+		return new OutboxMessage(event.getClass().getName(), String.valueOf(event.getId()),
+				location(event.getBaseUri(), event.getId()), this.clock.instant());
+	}
+
+	@Nullable
+	private static String location(@Nullable URI baseUri, Object id) {
+		if (baseUri == null) {
+			return null;
+		}
+		return UriComponentsBuilder.fromUri(baseUri).path("/{id}").build(id).toASCIIString();
+	}
+}
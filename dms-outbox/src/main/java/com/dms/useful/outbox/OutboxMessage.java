@@ -0,0 +1,99 @@
+package com.dms.useful.outbox;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@code OutboxMessage} é uma linha da tabela de outbox: a criação de um
+ * recurso a ser notificada a outros sistemas.
+ *
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public final class OutboxMessage {
+
+	@Nullable
+	private final Long id;
+	private final String eventType;
+	private final String resourceId;
+	@Nullable
+	private final String location;
+	private final Instant createdAt;
+
+	/**
+	 * Mensagem ainda não gravada (sem id).
+	 *
+	 * @param eventType  tipo do evento, ex.: nome da classe do evento
+	 * @param resourceId id do recurso criado
+	 * @param location   URI do recurso criado, se conhecida
+	 * @param createdAt  momento da criação
+	 */
+	public OutboxMessage(String eventType, String resourceId, @Nullable String location, Instant createdAt) {
+		this(null, eventType, resourceId, location, createdAt);
+	}
+
+	OutboxMessage(@Nullable Long id, String eventType, String resourceId, @Nullable String location,
+			Instant createdAt) {
+		Assert.hasText(eventType, "Event type is required");
+		Assert.hasText(resourceId, "Resource id is required");
+		Assert.notNull(createdAt, "CreatedAt is required");
+		this.id = id;
+		this.eventType = eventType;
+		this.resourceId = resourceId;
+		this.location = location;
+		this.createdAt = createdAt;
+	}
+
+	/**
+	 * @return id gerado pela tabela, {@code null} antes da gravação
+	 */
+	@Nullable
+	public Long getId() {
+		return id;
+	}
+
+	public String getEventType() {
+		return eventType;
+	}
+
+	public String getResourceId() {
+		return resourceId;
+	}
+
+	@Nullable
+	public String getLocation() {
+		return location;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, eventType, resourceId);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		OutboxMessage other = (OutboxMessage) obj;
+		return Objects.equals(id, other.id) && eventType.equals(other.eventType)
+				&& resourceId.equals(other.resourceId) && Objects.equals(location, other.location)
+				&& createdAt.equals(other.createdAt);
+	}
+
+	@Override
+	public String toString() {
+		return "OutboxMessage [id=" + id + ", eventType=" + eventType + ", resourceId=" + resourceId + ", location="
+				+ location + ", createdAt=" + createdAt + "]";
+	}
+}
@@ -0,0 +1,177 @@
+package com.dms.useful.outbox;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Drena a tabela de outbox em lotes, em segundo plano, e entrega as
+ * mensagens ao {@link OutboxSink}.
+ *
+ * <pre>
+ * Cada lote é uma transação: lê e bloqueia (SKIP LOCKED), entrega e remove.
+ * Se o destino falhar, a transação é desfeita e o lote é reenviado no próximo
+ * ciclo. Enquanto os lotes vierem cheios, o próximo é lido sem esperar o
+ * intervalo.
+ *
+ * Iniciado e parado com o contexto (SmartLifecycle), em uma thread própria.
+ * Ao parar, nenhum lote novo é iniciado e o lote em andamento é aguardado
+ * (até 30 segundos, ver setShutdownTimeout); depois disso a thread é
+ * interrompida e a transação do lote, desfeita.
+ *
+ * Ex.:
+ * &#64;Bean
+ * public OutboxRelay outboxRelay(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+ *         OutboxSink sink) {
+ *     return new OutboxRelay(new OutboxRepository(jdbcTemplate), sink, transactionManager);
+ * }
+ * </pre>
+ *
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class OutboxRelay implements SmartLifecycle {
+
+	private static final Log logger = LogFactory.getLog(OutboxRelay.class);
+
+	private final OutboxRepository repository;
+	private final OutboxSink sink;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+	private final long pollIntervalMillis;
+	private long shutdownTimeoutMillis = 30_000;
+
+	private volatile ScheduledExecutorService executor;
+	private volatile boolean stopping;
+
+	/**
+	 * Lotes de 100 mensagens, a cada segundo.
+	 */
+	public OutboxRelay(OutboxRepository repository, OutboxSink sink, PlatformTransactionManager transactionManager) {
+		this(repository, sink, transactionManager, 100, Duration.ofSeconds(1));
+	}
+
+	/**
+	 * @param repository         tabela de outbox
+	 * @param sink               destino das mensagens
+	 * @param transactionManager transações de cada lote
+	 * @param batchSize          mensagens por lote
+	 * @param pollInterval       espera quando a tabela está vazia
+	 */
+	public OutboxRelay(OutboxRepository repository, OutboxSink sink, PlatformTransactionManager transactionManager,
+			int batchSize, Duration pollInterval) {
+		Assert.notNull(repository, "OutboxRepository is required");
+		Assert.notNull(sink, "OutboxSink is required");
+		Assert.notNull(transactionManager, "PlatformTransactionManager is required");
+		Assert.isTrue(batchSize > 0, "BatchSize must be greater than zero");
+		Assert.isTrue(pollInterval != null && !pollInterval.isNegative() && !pollInterval.isZero(),
+				"PollInterval must be positive");
+		this.repository = repository;
+		this.sink = sink;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+		this.pollIntervalMillis = pollInterval.toMillis();
+	}
+
+	/**
+	 * @param shutdownTimeout quanto o stop() espera pelo lote em andamento
+	 */
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		Assert.isTrue(shutdownTimeout != null && !shutdownTimeout.isNegative(), "ShutdownTimeout must not be negative");
+		this.shutdownTimeoutMillis = shutdownTimeout.toMillis();
+	}
+
+	/**
+	 * Entrega um lote.
+	 *
+	 * @return quantidade de mensagens entregues
+	 */
+	public int relayBatch() {
+		Integer relayed = this.transactionTemplate.execute(status -> {
+			List<OutboxMessage> messages = this.repository.lockBatch(this.batchSize);
+			if (messages.isEmpty()) {
+				return 0;
+			}
+			this.sink.send(messages);
+			this.repository.delete(messages);
+			return messages.size();
+		});
+		return relayed == null ? 0 : relayed;
+	}
+
+	/**
+	 * Entrega lotes enquanto vierem cheios.
+	 *
+	 * @return quantidade de mensagens entregues
+	 */
+	public int drain() {
+		int total = 0;
+		int relayed;
+		do {
+			relayed = relayBatch();
+			total += relayed;
+		} while (relayed == this.batchSize);
+		return total;
+	}
+
+	private void poll() {
+		try {
+			int relayed;
+			do {
+				relayed = relayBatch();
+			} while (relayed == this.batchSize && !this.stopping);
+		} catch (RuntimeException e) {
+			// as mensagens permanecem na tabela e são reenviadas no próximo ciclo
+			logger.warn("Outbox relay failed, retrying in " + this.pollIntervalMillis + " ms", e);
+		}
+	}
+
+	@Override
+	public synchronized void start() {
+		if (this.executor != null) {
+			return;
+		}
+		this.stopping = false;
+		this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "outbox-relay");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.scheduleWithFixedDelay(this::poll, 0, this.pollIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public synchronized void stop() {
+		ScheduledExecutorService current = this.executor;
+		if (current == null) {
+			return;
+		}
+		this.executor = null;
+		this.stopping = true;
+		current.shutdown();
+		try {
+			if (!current.awaitTermination(this.shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				logger.warn("Outbox relay did not finish its batch in " + this.shutdownTimeoutMillis
+						+ " ms, interrupting it");
+				current.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			current.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.executor != null;
+	}
+}
@@ -0,0 +1,93 @@
+package com.dms.useful.outbox;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Acesso à tabela de outbox via {@code JdbcTemplate}, que participa da
+ * transação corrente (inclusive a do {@code JpaTransactionManager}, que
+ * expõe a conexão JDBC).
+ *
+ * <pre>
+ * Tabela (PostgreSQL; MySQL 8: id BIGINT AUTO_INCREMENT):
+ * CREATE TABLE outbox (
+ *     id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+ *     event_type  VARCHAR(255)  NOT NULL,
+ *     resource_id VARCHAR(255)  NOT NULL,
+ *     location    VARCHAR(2048),
+ *     created_at  TIMESTAMP     NOT NULL
+ * );
+ *
+ * O lote é lido com FOR UPDATE SKIP LOCKED: várias instâncias do relay
+ * drenam a tabela em paralelo sem disputar as mesmas linhas.
+ * </pre>
+ *
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class OutboxRepository {
+
+	public static final String DEFAULT_TABLE = "outbox";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final String insertSql;
+	private final String lockSql;
+	private final String deleteSql;
+
+	public OutboxRepository(JdbcTemplate jdbcTemplate) {
+		this(jdbcTemplate, DEFAULT_TABLE);
+	}
+
+	/**
+	 * @param jdbcTemplate template da aplicação
+	 * @param table        nome da tabela, opcionalmente com schema
+	 */
+	public OutboxRepository(JdbcTemplate jdbcTemplate, String table) {
+		Assert.notNull(jdbcTemplate, "JdbcTemplate is required");
+		Assert.isTrue(table != null && table.matches("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?"),
+				"Invalid outbox table name");
+		this.jdbcTemplate = jdbcTemplate;
+		this.insertSql = "INSERT INTO " + table + " (event_type, resource_id, location, created_at) VALUES (?, ?, ?, ?)";
+		this.lockSql = "SELECT id, event_type, resource_id, location, created_at FROM " + table
+				+ " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+		this.deleteSql = "DELETE FROM " + table + " WHERE id = ?";
+	}
+
+	/**
+	 * Grava a mensagem na transação corrente.
+	 */
+	public void save(OutboxMessage message) {
+		this.jdbcTemplate.update(this.insertSql, message.getEventType(), message.getResourceId(),
+				message.getLocation(), Timestamp.from(message.getCreatedAt()));
+	}
+
+	/**
+	 * Lê e bloqueia até {@code size} mensagens não bloqueadas por outra
+	 * transação. Deve ser chamado dentro de uma transação.
+	 */
+	public List<OutboxMessage> lockBatch(int size) {
+		return this.jdbcTemplate.query(this.lockSql, OutboxRepository::map, size);
+	}
+
+	/**
+	 * Remove as mensagens entregues.
+	 */
+	public void delete(List<OutboxMessage> messages) {
+		List<Object[]> ids = new ArrayList<>(messages.size());
+		for (OutboxMessage message : messages) {
+			ids.add(new Object[] { message.getId() });
+		}
+		this.jdbcTemplate.batchUpdate(this.deleteSql, ids);
+	}
+
+	private static OutboxMessage map(ResultSet rs, int rowNum) throws SQLException {
+		return new OutboxMessage(rs.getLong("id"), rs.getString("event_type"), rs.getString("resource_id"),
+				rs.getString("location"), rs.getTimestamp("created_at").toInstant());
+	}
+}
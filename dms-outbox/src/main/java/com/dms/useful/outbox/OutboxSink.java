@@ -0,0 +1,26 @@
+package com.dms.useful.outbox;
+
+import java.util.List;
+
+/**
+ * Destino das mensagens do outbox (broker, webhook, outro serviço).
+ *
+ * <pre>
+ * Chamado pelo {@link OutboxRelay} dentro da transação que mantém as linhas
+ * bloqueadas: se lançar uma exceção, o lote volta para a tabela e é
+ * reenviado no próximo ciclo. A entrega é "at least once": o destino deve
+ * tolerar mensagens repetidas (ex.: pelo id da mensagem).
+ * </pre>
+ *
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ * @see InMemoryOutboxSink
+ */
+@FunctionalInterface
+public interface OutboxSink {
+
+	/**
+	 * @param messages lote em ordem de gravação, nunca vazio
+	 */
+	void send(List<OutboxMessage> messages);
+}
@@ -0,0 +1,179 @@
+package com.dms.useful;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.validation.Constraint;
+import javax.validation.ConstraintValidator;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.context.ApplicationListener;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import com.dms.useful.circuit.DataAccessCircuitBreaker;
+import com.dms.useful.exception.handler.ResourcesExceptionHandler;
+import com.dms.useful.outbox.OutboxEventListener;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Every type of the library accessed by reflection (Jackson, Bean Validation,
+ * Spring MVC) must be in the GraalVM native-image metadata of its module.
+ * 
+ * @author Diorgenes Morais
+ *
+ */
+public class NativeImageConfigTest {
+
+	private static final String CONFIG = "META-INF/native-image/com.dms.useful/%s/";
+
+	private static List<Module> modules;
+
+	/**
+	 * Classes e metadados de um módulo (diretório target/classes ou jar).
+	 */
+	private static final class Module {
+		private final Path classesRoot;
+		private final Map<String, JsonNode> reflectConfig = new HashMap<>();
+		private final List<Pattern> resourcePatterns = new ArrayList<>();
+
+		private Module(Class<?> anchor, String artifactId, ObjectMapper objectMapper) throws Exception {
+			Path location = Paths.get(anchor.getProtectionDomain().getCodeSource().getLocation().toURI());
+			this.classesRoot = Files.isDirectory(location) ? location
+					: FileSystems.newFileSystem(location, (ClassLoader) null).getPath("/");
+
+			String config = String.format(CONFIG, artifactId);
+			for (JsonNode entry : read(objectMapper, config + "reflect-config.json")) {
+				this.reflectConfig.put(entry.get("name").asText(), entry);
+			}
+			JsonNode resources = read(objectMapper, config + "resource-config.json");
+			for (JsonNode include : resources.path("resources").path("includes")) {
+				this.resourcePatterns.add(Pattern.compile(include.get("pattern").asText()));
+			}
+		}
+
+		private JsonNode read(ObjectMapper objectMapper, String file) throws Exception {
+			Path path = this.classesRoot.resolve(file);
+			if (!Files.exists(path)) {
+				return objectMapper.createArrayNode();
+			}
+			try (InputStream in = Files.newInputStream(path)) {
+				return objectMapper.readTree(in);
+			}
+		}
+
+		private List<String> files() throws Exception {
+			try (Stream<Path> paths = Files.walk(this.classesRoot)) {
+				return paths.filter(Files::isRegularFile)
+						.map(path -> this.classesRoot.relativize(path).toString().replace('\\', '/'))
+						.collect(Collectors.toList());
+			}
+		}
+
+		private List<Class<?>> classes() throws Exception {
+			List<Class<?>> classes = new ArrayList<>();
+			for (String name : files()) {
+				if (name.endsWith(".class") && !name.endsWith("module-info.class")) {
+					String className = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+					classes.add(Class.forName(className, false, NativeImageConfigTest.class.getClassLoader()));
+				}
+			}
+			return classes;
+		}
+
+		private boolean has(String name, String... flags) {
+			JsonNode entry = this.reflectConfig.get(name);
+			if (entry == null) {
+				return false;
+			}
+			for (String flag : flags) {
+				if (!entry.path(flag).asBoolean()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	@BeforeClass
+	public static void load() throws Exception {
+		ObjectMapper objectMapper = new ObjectMapper();
+		modules = Arrays.asList(new Module(UFBrasil.class, "dms-core", objectMapper),
+				new Module(ResourcesExceptionHandler.class, "dms-web", objectMapper),
+				new Module(DataAccessCircuitBreaker.class, "dms-jpa", objectMapper),
+				new Module(OutboxEventListener.class, "dms-outbox", objectMapper));
+	}
+
+	private static boolean hasExceptionHandler(Class<?> type) {
+		for (Method method : type.getDeclaredMethods()) {
+			if (method.isAnnotationPresent(ExceptionHandler.class)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void shouldRegisterEveryReflectivelyAccessedType() throws Exception {
+		for (Module module : modules) {
+			for (Class<?> type : module.classes()) {
+				String name = type.getName();
+				if (type.isAnnotationPresent(JsonInclude.class)) {
+					assertTrue(name, module.has(name, "allPublicMethods", "allDeclaredFields", "allDeclaredConstructors"));
+				}
+				if (type.isEnum() && Modifier.isPublic(type.getModifiers())) {
+					assertTrue(name, module.has(name, "allPublicFields", "allPublicMethods"));
+				}
+				if (ConstraintValidator.class.isAssignableFrom(type) && !Modifier.isAbstract(type.getModifiers())) {
+					assertTrue(name, module.has(name, "allPublicConstructors"));
+				}
+				if (type.isAnnotation() && type.isAnnotationPresent(Constraint.class)) {
+					assertTrue(name, module.has(name, "allDeclaredMethods"));
+				}
+				if (hasExceptionHandler(type)) {
+					assertTrue(name, module.has(name, "allDeclaredMethods"));
+				}
+				if (ApplicationListener.class.isAssignableFrom(type)) {
+					assertTrue(name, module.has(name, "allPublicMethods"));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void shouldRegisterEveryResource() throws Exception {
+		for (Module module : modules) {
+			for (String resource : module.files()) {
+				if (resource.startsWith("com/dms/useful/") && !resource.endsWith(".class")) {
+					assertTrue(resource, module.resourcePatterns.stream().anyMatch(p -> p.matcher(resource).matches()));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void shouldOnlyRegisterExistingTypes() throws Exception {
+		for (Module module : modules) {
+			for (String name : module.reflectConfig.keySet()) {
+				Class.forName(name, false, NativeImageConfigTest.class.getClassLoader());
+			}
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package com.dms.useful.outbox;
+
+import static org.junit.Assert.*;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dms.useful.event.ResourceCreatedEvent;
+
+public class OutboxRelayTest {
+
+	private static final String DDL = "CREATE TABLE outbox (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+			+ "event_type VARCHAR(255) NOT NULL, resource_id VARCHAR(255) NOT NULL, location VARCHAR(2048), "
+			+ "created_at TIMESTAMP NOT NULL)";
+
+	private JdbcTemplate jdbcTemplate;
+	private DataSourceTransactionManager transactionManager;
+	private OutboxRepository repository;
+	private InMemoryOutboxSink sink;
+
+	static class ProductCreatedEvent extends ResourceCreatedEvent<Long> {
+		private static final long serialVersionUID = 1L;
+
+		ProductCreatedEvent(Long id) {
+			super(new Object(), id, URI.create("http://localhost/products"));
+		}
+	}
+
+	@Before
+	public void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:outbox" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.execute(DDL);
+		this.transactionManager = new DataSourceTransactionManager(dataSource);
+		this.repository = new OutboxRepository(this.jdbcTemplate);
+		this.sink = new InMemoryOutboxSink();
+	}
+
+	@After
+	public void tearDown() {
+		this.jdbcTemplate.execute("SHUTDOWN");
+	}
+
+	private int pending() {
+		return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class);
+	}
+
+	private void save(int count) {
+		for (int i = 1; i <= count; i++) {
+			this.repository.save(new OutboxMessage("test", String.valueOf(i), null, Instant.now()));
+		}
+	}
+
+	private static List<String> ids(List<OutboxMessage> messages) {
+		return messages.stream().map(OutboxMessage::getResourceId).collect(Collectors.toList());
+	}
+
+	@Test
+	public void shouldWriteTheEventInTheTransactionOfTheResource() {
+		OutboxEventListener listener = new OutboxEventListener(this.repository, this.transactionManager);
+		TransactionTemplate transaction = new TransactionTemplate(this.transactionManager);
+
+		transaction.executeWithoutResult(status -> {
+			listener.onApplicationEvent(new ProductCreatedEvent(6L));
+			status.setRollbackOnly();
+		});
+		assertEquals(0, pending());
+
+		transaction.executeWithoutResult(status -> listener.onApplicationEvent(new ProductCreatedEvent(7L)));
+		assertEquals(1, pending());
+
+		OutboxMessage message = this.repository.lockBatch(1).get(0);
+		assertEquals(ProductCreatedEvent.class.getName(), message.getEventType());
+		assertEquals("7", message.getResourceId());
+		assertEquals("http://localhost/products/7", message.getLocation());
+	}
+
+	@Test
+	public void shouldIgnoreEventsPublishedOutsideATransaction() {
+		// e.g. published by the controller after the service committed
+		new OutboxEventListener(this.repository, this.transactionManager).onApplicationEvent(new ProductCreatedEvent(8L));
+
+		assertEquals(0, pending());
+	}
+
+	@Test
+	public void shouldRelayInBatchesAndDeleteTheDeliveredMessages() {
+		save(5);
+		OutboxRelay relay = new OutboxRelay(this.repository, this.sink, this.transactionManager, 2,
+				Duration.ofSeconds(1));
+
+		assertEquals(5, relay.drain());
+
+		assertEquals(List.of("1", "2", "3", "4", "5"), ids(this.sink.getMessages()));
+		assertEquals(0, pending());
+	}
+
+	@Test
+	public void shouldKeepTheBatchWhenTheSinkFails() {
+		save(2);
+		OutboxRelay failing = new OutboxRelay(this.repository, messages -> {
+			throw new IllegalStateException("broker down");
+		}, this.transactionManager);
+
+		try {
+			failing.relayBatch();
+			fail("The sink failure should be propagated");
+		} catch (IllegalStateException e) {
+			assertEquals(2, pending());
+		}
+
+		assertEquals(2, new OutboxRelay(this.repository, this.sink, this.transactionManager).relayBatch());
+		assertEquals(List.of("1", "2"), ids(this.sink.getMessages()));
+	}
+
+	@Test
+	public void shouldSkipMessagesLockedByAnotherRelay() throws Exception {
+		save(3);
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService other = Executors.newSingleThreadExecutor();
+		try {
+			Future<Integer> first = other.submit(() -> new OutboxRelay(this.repository, messages -> {
+				locked.countDown();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, this.transactionManager, 2, Duration.ofSeconds(1)).relayBatch());
+			assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+			assertEquals(1, new OutboxRelay(this.repository, this.sink, this.transactionManager, 2,
+					Duration.ofSeconds(1)).relayBatch());
+			assertEquals(List.of("3"), ids(this.sink.getMessages()));
+
+			release.countDown();
+			assertEquals(2, first.get(5, TimeUnit.SECONDS).intValue());
+			assertEquals(0, pending());
+		} finally {
+			release.countDown();
+			other.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldRelayInBackgroundWhileRunning() throws Exception {
+		OutboxRelay relay = new OutboxRelay(this.repository, this.sink, this.transactionManager, 10,
+				Duration.ofMillis(20));
+		relay.start();
+		try {
+			assertTrue(relay.isRunning());
+			save(3);
+
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (this.sink.getMessages().size() < 3 && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(List.of("1", "2", "3"), ids(this.sink.getMessages()));
+		} finally {
+			relay.stop();
+		}
+		assertFalse(relay.isRunning());
+	}
+
+	@Test
+	public void shouldWaitForTheBatchInFlightWhenStopping() throws Exception {
+		save(1);
+		CountDownLatch sending = new CountDownLatch(1);
+		OutboxRelay relay = new OutboxRelay(this.repository, messages -> {
+			sending.countDown();
+			sleep(200);
+			this.sink.send(messages);
+		}, this.transactionManager, 10, Duration.ofMillis(20));
+		relay.start();
+		assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+		relay.stop();
+
+		assertEquals(List.of("1"), ids(this.sink.getMessages()));
+		assertEquals(0, pending());
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.dms.useful.deadline;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.util.Assert;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Filtro que inicia o {@link RequestDeadline} da requisição, a partir do
+ * header {@code X-Request-Timeout} (milissegundos) ou de um prazo padrão.
+ * 
+ * <pre>
+ * O header é limitado ao prazo máximo; header ausente ou inválido usa o
+ * prazo padrão.
+ * 
+ * Ex.:
+ * &#64;Bean
+ * public FilterRegistrationBean&lt;RequestDeadlineFilter&gt; requestDeadlineFilter() {
+ *     return new FilterRegistrationBean&lt;&gt;(new RequestDeadlineFilter(Duration.ofSeconds(5)));
+ * }
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+	public static final String DEFAULT_HEADER = "X-Request-Timeout";
+
+	private final long defaultBudgetMillis;
+	private final long maxBudgetMillis;
+	private final String header;
+
+	/**
+	 * @param defaultBudget prazo das requisições sem header, também o máximo
+	 *                      aceito no header
+	 */
+	public RequestDeadlineFilter(Duration defaultBudget) {
+		this(defaultBudget, defaultBudget, DEFAULT_HEADER);
+	}
+
+	/**
+	 * @param defaultBudget prazo das requisições sem header
+	 * @param maxBudget     prazo máximo aceito no header
+	 * @param header        nome do header, em milissegundos
+	 */
+	public RequestDeadlineFilter(Duration defaultBudget, Duration maxBudget, String header) {
+		Assert.isTrue(defaultBudget != null && !defaultBudget.isNegative() && !defaultBudget.isZero(),
+				"Default budget must be positive");
+		Assert.isTrue(maxBudget != null && maxBudget.compareTo(defaultBudget) >= 0,
+				"Max budget must not be less than the default budget");
+		Assert.hasText(header, "Header is required");
+		this.defaultBudgetMillis = defaultBudget.toMillis();
+		this.maxBudgetMillis = maxBudget.toMillis();
+		this.header = header;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		RequestDeadline.start(Duration.ofMillis(budgetMillis(request.getHeader(this.header))));
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			RequestDeadline.clear();
+		}
+	}
+
+	long budgetMillis(String value) {
+		if (value == null) {
+			return this.defaultBudgetMillis;
+		}
+		try {
+			long millis = Long.parseLong(value.trim());
+			return millis > 0 ? Math.min(millis, this.maxBudgetMillis) : this.defaultBudgetMillis;
+		} catch (NumberFormatException e) {
+			return this.defaultBudgetMillis;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.dms.useful.event;
+
+import java.net.URI;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Class to be extended to compose the response through an event that will be
+ * launched.
+ * 
+ * The URI of the request is captured when the event is constructed, so the
+ * event can be published from any thread ({@code CompletableFuture},
+ * {@code DeferredResult}, executors). Outside the request thread, use the
+ * constructor with the {@code HttpServletRequest} or the base {@code URI}.
+ * Services publishing the event inside their transaction (e.g. for the
+ * outbox) use the constructor without {@code HttpServletResponse}.
+ * 
+ * @author Diorgenes Morais
+ *
+ * @param <ID> type must be defined. Example of type: {@code Integer}
+ * @since 1.1.2
+ */
+public abstract class ResourceCreatedEvent<ID> extends ApplicationEvent {
+
+	private static final long serialVersionUID = 7067219761465481821L;
+
+	private HttpServletResponse response;
+	private ID id;
+	@Nullable
+	private URI baseUri;
+
+	/**
+	 * Constructor override
+	 * 
+	 * @param source   where you generated the event
+	 * @param response
+	 * @param id       of model (resource)
+	 */
+	public ResourceCreatedEvent(Object source, HttpServletResponse response, @NonNull ID id) {
+		this(source, response, id, currentRequestUri());
+	}
+
+	/**
+	 * Constructor to be used outside the request thread.
+	 * 
+	 * @param source   where you generated the event
+	 * @param request  the request that created the resource
+	 * @param response
+	 * @param id       of model (resource)
+	 * @since 3.0.0
+	 */
+	public ResourceCreatedEvent(Object source, HttpServletRequest request, HttpServletResponse response, @NonNull ID id) {
+		this(source, response, id, ServletUriComponentsBuilder.fromRequestUri(request).build().toUri());
+	}
+
+	/**
+	 * Constructor to be used outside the request thread.
+	 * 
+	 * @param source   where you generated the event
+	 * @param response
+	 * @param id       of model (resource)
+	 * @param baseUri  URI of the collection, the {@code id} is appended to it
+	 * @since 3.0.0
+	 */
+	public ResourceCreatedEvent(Object source, @Nullable HttpServletResponse response, @NonNull ID id,
+			@Nullable URI baseUri) {
+		super(source);
+		Assert.notNull(id, String.format("Id should not be null, error in %s", this.getClass().getName()));
+		this.response = response;
+		this.id = id;
+		this.baseUri = baseUri;
+	}
+
+	/**
+	 * Constructor without servlet objects, to be used by services (inside
+	 * their transaction). No Location header is added to a response.
+	 * 
+	 * @param source  where you generated the event
+	 * @param id      of model (resource)
+	 * @param baseUri URI of the collection, the {@code id} is appended to it
+	 * @since 3.0.0
+	 */
+	public ResourceCreatedEvent(Object source, @NonNull ID id, @Nullable URI baseUri) {
+		this(source, null, id, baseUri);
+	}
+
+	@Nullable
+	private static URI currentRequestUri() {
+		if (RequestContextHolder.getRequestAttributes() == null) {
+			return null;
+		}
+		return ServletUriComponentsBuilder.fromCurrentRequestUri().build().toUri();
+	}
+
+	/**
+	 * @return the response, or {@code null} for an event published without
+	 *         servlet objects
+	 */
+	@Nullable
+	public HttpServletResponse getResponse() {
+		return response;
+	}
+
+	public ID getId() {
+		return id;
+	}
+
+	/**
+	 * URI of the request captured when the event was constructed.
+	 * 
+	 * @return the base URI, or {@code null} if there was no request bound to
+	 *         the thread
+	 * @since 3.0.0
+	 */
+	@Nullable
+	public URI getBaseUri() {
+		return baseUri;
+	}
+
+}
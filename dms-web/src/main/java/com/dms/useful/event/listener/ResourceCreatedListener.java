@@ -6,6 +6,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.context.ApplicationListener;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import com.dms.useful.event.ResourceCreatedEvent;
 
@@ -15,6 +16,10 @@ import com.dms.useful.event.ResourceCreatedEvent;
  * 
  * This class must be part of the application context as a component
  * 
+ * The Location is built from the URI captured by the event, without
+ * request-scoped ThreadLocals, so the event may be published from any
+ * thread. Events without a response (published by a service) are ignored.
+ * 
  * @author Diorgenes Morais
  * @since 1.1.2
  * 
@@ -24,13 +29,19 @@ public abstract class ResourceCreatedListener<ID> implements ApplicationListener
 	@Override
 	public void onApplicationEvent(ResourceCreatedEvent<ID> event) {
 		HttpServletResponse response = event.getResponse();
+		if (response == null) {
+			return;
+		}
 		ID id = event.getId();
 
-		addHeaderLocation(response, id);
+		addHeaderLocation(response, event.getBaseUri(), id);
 	}
 
-	private void addHeaderLocation(HttpServletResponse response, ID id) {
-		URI uri = ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{id}").build(id);
+	private void addHeaderLocation(HttpServletResponse response, URI baseUri, ID id) {
+		UriComponentsBuilder builder = baseUri != null
+				? UriComponentsBuilder.fromUri(baseUri)
+				: ServletUriComponentsBuilder.fromCurrentRequestUri();
+		URI uri = builder.path("/{id}").build(id);
 		response.setHeader("Location", uri.toASCIIString());
 	}
 }
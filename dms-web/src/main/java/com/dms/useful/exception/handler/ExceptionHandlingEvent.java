@@ -0,0 +1,48 @@
+package com.dms.useful.exception.handler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR do tratamento de uma exceção pelo
+ * {@code ResourcesExceptionHandler}: do primeiro passo da montagem do
+ * {@code ProblemDetail} (causa raiz, lista de erros, createProblemDetail) ao
+ * {@code ResponseEntity} do {@code handleExceptionInternal} (localização e
+ * renderização incluídas).
+ * 
+ * <pre>
+ * Desabilitado por padrão. Para registrar:
+ * jcmd &lt;pid&gt; JFR.start settings=profile +com.dms.useful.ExceptionHandling#enabled=true
+ * ou, em um arquivo .jfc:
+ * &lt;event name="com.dms.useful.ExceptionHandling"&gt;
+ *   &lt;setting name="enabled"&gt;true&lt;/setting&gt;
+ * &lt;/event&gt;
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+@Name(ExceptionHandlingEvent.NAME)
+@Label("Exception Handling")
+@Category({ "DMS", "Error Handling" })
+@Description("ProblemDetail built and rendered by the ResourcesExceptionHandler")
+@Enabled(false)
+@StackTrace(false)
+class ExceptionHandlingEvent extends Event {
+
+	static final String NAME = "com.dms.useful.ExceptionHandling";
+
+	@Label("Exception Class")
+	Class<?> exceptionClass;
+
+	@Label("Problem Type")
+	String problemType;
+
+	@Label("Status")
+	int status;
+}
@@ -0,0 +1,153 @@
+package com.dms.useful.exception.handler;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@code ProblemDetailCache} keeps serialized {@code ProblemDetail} bodies for
+ * a short time, so repeated errors (the same 404 on the same path, the same
+ * 405...) skip Jackson.
+ * 
+ * <pre>
+ * The key is (type, status, title, detail, instance). The timestamp of a
+ * cached body is the one of the first error, so it is as coarse as the TTL.
+ * Bodies with properties are not cached.
+ * 
+ * Uso (opcional), no handler da aplicação:
+ * private final ProblemDetailCache cache = new ProblemDetailCache(objectMapper, Duration.ofSeconds(1), 1024);
+ * 
+ * &#64;Override
+ * protected ProblemDetailCache getProblemDetailCache() {
+ *     return cache;
+ * }
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class ProblemDetailCache {
+
+	public static final MediaType APPLICATION_PROBLEM_JSON = MediaType.valueOf("application/problem+json");
+
+	private final ObjectMapper objectMapper;
+	private final long ttlNanos;
+	private final int maxEntries;
+	private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * @param objectMapper serializes the {@code ProblemDetail}
+	 * @param ttl          how long each body is reused
+	 * @param maxEntries   maximum number of cached bodies
+	 */
+	public ProblemDetailCache(ObjectMapper objectMapper, Duration ttl, int maxEntries) {
+		Assert.notNull(objectMapper, "ObjectMapper is required");
+		Assert.notNull(ttl, "TTL is required");
+		Assert.isTrue(maxEntries > 0, "MaxEntries must be greater than zero");
+		this.objectMapper = objectMapper;
+		this.ttlNanos = ttl.toNanos();
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Serialized body of the {@code ProblemDetail}, cached or serialized now.
+	 * 
+	 * @param problemDetail the error body
+	 * @return the JSON bytes, or {@code null} if the body can not be cached
+	 */
+	public byte[] get(ProblemDetail problemDetail) {
+		if (problemDetail.getProperties() != null) {
+			return null;
+		}
+		Key key = new Key(problemDetail);
+		long now = System.nanoTime();
+		Entry entry = this.entries.get(key);
+		if (entry != null && now - entry.expiresAt < 0) {
+			return entry.body;
+		}
+
+		byte[] body;
+		try {
+			body = this.objectMapper.writeValueAsBytes(problemDetail);
+		} catch (JsonProcessingException e) {
+			return null;
+		}
+		if (this.entries.size() >= this.maxEntries) {
+			evictExpired(now);
+		}
+		if (entry != null || this.entries.size() < this.maxEntries) {
+			this.entries.put(key, new Entry(body, now + this.ttlNanos));
+		}
+		return body;
+	}
+
+	int size() {
+		return this.entries.size();
+	}
+
+	private void evictExpired(long now) {
+		for (Iterator<Entry> iterator = this.entries.values().iterator(); iterator.hasNext();) {
+			if (now - iterator.next().expiresAt >= 0) {
+				iterator.remove();
+			}
+		}
+	}
+
+	private static final class Entry {
+		private final byte[] body;
+		private final long expiresAt;
+
+		private Entry(byte[] body, long expiresAt) {
+			this.body = body;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	/**
+	 * Immutable copy of the fields that identify an error body, with the hash
+	 * computed once.
+	 */
+	private static final class Key {
+		private final String type;
+		private final int status;
+		private final String title;
+		private final String detail;
+		private final URI instance;
+		private final int hash;
+
+		private Key(ProblemDetail problemDetail) {
+			this.type = problemDetail.getType();
+			this.status = problemDetail.getStatus();
+			this.title = problemDetail.getTitle();
+			this.detail = problemDetail.getDetail();
+			this.instance = problemDetail.getInstance();
+			this.hash = Objects.hash(type, status, title, detail, instance);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return hash == other.hash && status == other.status && Objects.equals(type, other.type)
+					&& Objects.equals(title, other.title) && Objects.equals(detail, other.detail)
+					&& Objects.equals(instance, other.instance);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.dms.useful.exception.handler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.CollectionUtils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * {@code ProblemDetailCodec} encodes a {@code ProblemDetail} in CBOR (binary,
+ * same fields of the JSON) and decodes it, in CBOR or JSON, on the client
+ * side.
+ * 
+ * <pre>
+ * O ResourcesExceptionHandler responde em CBOR somente quando o header
+ * Accept pede application/cbor antes de qualquer tipo JSON; o padrão
+ * continua sendo JSON.
+ * 
+ * Para que o CBOR tenha o mesmo esquema do JSON da aplicação (datas, nomes,
+ * inclusão), construir o codec com o ObjectMapper da aplicação:
+ * &#64;Override
+ * protected ProblemDetailCodec getProblemDetailCodec() {
+ *     return codec; // new ProblemDetailCodec(objectMapper)
+ * }
+ * Sem ele, as datas são escritas em ISO-8601, como no Spring Boot.
+ * 
+ * No cliente:
+ * ProblemDetail problem = codec.decode(body, response.getHeaders().getContentType());
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class ProblemDetailCodec {
+
+	public static final MediaType APPLICATION_CBOR = MediaType.valueOf("application/cbor");
+
+	private final ObjectMapper cborMapper;
+	private final ObjectMapper jsonMapper;
+
+	/**
+	 * Dates in ISO-8601, as the JSON of Spring Boot.
+	 */
+	public ProblemDetailCodec() {
+		this(new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+	}
+
+	/**
+	 * CBOR with the configuration of the application mapper: features,
+	 * mix-ins, inclusion, date format and serializers of its modules. The
+	 * mapper itself is not changed.
+	 * 
+	 * @param objectMapper mapper of the JSON responses
+	 */
+	public ProblemDetailCodec(ObjectMapper objectMapper) {
+		this(cborCopy(objectMapper), objectMapper.copy());
+	}
+
+	/**
+	 * @param cborMapper mapper of the CBOR format
+	 * @param jsonMapper mapper used to decode JSON bodies
+	 */
+	public ProblemDetailCodec(CBORMapper cborMapper, ObjectMapper jsonMapper) {
+		this.cborMapper = configure(cborMapper);
+		this.jsonMapper = configure(jsonMapper);
+	}
+
+	private static CBORMapper cborCopy(ObjectMapper objectMapper) {
+		CBORMapper cborMapper = new CBORMapper();
+		cborMapper.setConfig(objectMapper.getSerializationConfig());
+		cborMapper.setConfig(objectMapper.getDeserializationConfig());
+		cborMapper.setSerializerFactory(objectMapper.getSerializerFactory());
+		return cborMapper;
+	}
+
+	private static ObjectMapper configure(ObjectMapper objectMapper) {
+		return objectMapper
+				.registerModule(new Jdk8Module())
+				.registerModule(new JavaTimeModule())
+				.registerModule(new ProblemDetailModule())
+				.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+	}
+
+	/**
+	 * Whether the client prefers CBOR: {@code application/cbor} must be in the
+	 * Accept header before any JSON type. Wildcards keep the JSON default.
+	 * 
+	 * @param accept media types of the Accept header
+	 * @return {@code true} to answer in CBOR
+	 */
+	public boolean isCborAcceptable(List<MediaType> accept) {
+		if (CollectionUtils.isEmpty(accept)) {
+			return false;
+		}
+		List<MediaType> mediaTypes = new ArrayList<>(accept);
+		MediaType.sortBySpecificityAndQuality(mediaTypes);
+		for (MediaType mediaType : mediaTypes) {
+			if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+				continue;
+			}
+			if (APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+				return mediaType.getQualityValue() > 0;
+			}
+			if (MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)
+					|| ProblemDetailCache.APPLICATION_PROBLEM_JSON.isCompatibleWith(mediaType)) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param problemDetail error body
+	 * @return the body in CBOR
+	 * @throws IOException if it can not be written
+	 */
+	public byte[] encode(ProblemDetail problemDetail) throws IOException {
+		return this.cborMapper.writeValueAsBytes(problemDetail);
+	}
+
+	/**
+	 * Decodes an error body, in CBOR or JSON.
+	 * 
+	 * @param body        bytes of the response
+	 * @param contentType of the response. Anything other than
+	 *                    {@code application/cbor} is read as JSON
+	 * @return the {@code ProblemDetail}
+	 * @throws IOException if it can not be read
+	 */
+	public ProblemDetail decode(byte[] body, MediaType contentType) throws IOException {
+		ObjectMapper objectMapper = contentType != null && APPLICATION_CBOR.equalsTypeAndSubtype(contentType)
+				? this.cborMapper
+				: this.jsonMapper;
+		return objectMapper.readValue(body, ProblemDetail.class);
+	}
+}
@@ -0,0 +1,88 @@
+package com.dms.useful.exception.handler;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@code ProblemDetailLimits} bounds the size of a {@code ProblemDetail}
+ * built by {@code ResourcesExceptionHandler}.
+ * 
+ * <pre>
+ * Para alterar os limites, sobrescrever no handler da aplicação:
+ * &#64;Override
+ * protected ProblemDetailLimits getProblemDetailLimits() {
+ *     return ProblemDetailLimits.of(50, 256, 512);
+ * }
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public final class ProblemDetailLimits {
+
+	/**
+	 * Property that reports how many entries were left out of
+	 * {@code ProblemDetail.properties}.
+	 */
+	public static final String OMITTED_PROPERTIES = "omittedProperties";
+
+	/**
+	 * Property set to {@code true} when the errors were already incomplete at
+	 * the source, e.g. a fail-fast {@code BulkValidationException}.
+	 */
+	public static final String TRUNCATED = "truncated";
+
+	public static final ProblemDetailLimits DEFAULT = new ProblemDetailLimits(100, 512, 1024);
+
+	private static final String ELLIPSIS = "...";
+
+	private final int maxProperties;
+	private final int maxValueLength;
+	private final int maxDetailLength;
+
+	private ProblemDetailLimits(int maxProperties, int maxValueLength, int maxDetailLength) {
+		this.maxProperties = maxProperties;
+		this.maxValueLength = maxValueLength;
+		this.maxDetailLength = maxDetailLength;
+	}
+
+	/**
+	 * @param maxProperties   maximum number of entries in {@code properties}
+	 * @param maxValueLength  maximum length of each key and value of
+	 *                        {@code properties}
+	 * @param maxDetailLength maximum length of {@code detail}
+	 * @return an instance of {@code ProblemDetailLimits}
+	 */
+	public static ProblemDetailLimits of(int maxProperties, int maxValueLength, int maxDetailLength) {
+		Assert.isTrue(maxProperties > 0, "MaxProperties must be greater than zero");
+		Assert.isTrue(maxValueLength > ELLIPSIS.length(), "MaxValueLength must be greater than 3");
+		Assert.isTrue(maxDetailLength > ELLIPSIS.length(), "MaxDetailLength must be greater than 3");
+		return new ProblemDetailLimits(maxProperties, maxValueLength, maxDetailLength);
+	}
+
+	public int getMaxProperties() {
+		return maxProperties;
+	}
+
+	public int getMaxValueLength() {
+		return maxValueLength;
+	}
+
+	public int getMaxDetailLength() {
+		return maxDetailLength;
+	}
+
+	String truncateValue(String value) {
+		return truncate(value, this.maxValueLength);
+	}
+
+	String truncateDetail(String detail) {
+		return truncate(detail, this.maxDetailLength);
+	}
+
+	private static String truncate(String value, int maxLength) {
+		if (value == null || value.length() <= maxLength) {
+			return value;
+		}
+		return value.substring(0, maxLength - ELLIPSIS.length()).concat(ELLIPSIS);
+	}
+}
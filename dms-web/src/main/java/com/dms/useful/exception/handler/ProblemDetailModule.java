@@ -0,0 +1,182 @@
+package com.dms.useful.exception.handler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.Serializers;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Jackson {@code Module} with dedicated serializers for {@link ProblemDetail},
+ * {@link ErrorDetails} and {@link ErroDTO}.
+ * 
+ * <pre>
+ * The serializers write the properties directly through the getters, in the
+ * same order and with the same &#64;JsonInclude(NON_NULL) semantics of the
+ * reflective (bean introspection) serialization, so the output is byte for
+ * byte the same. Dates and the properties map are delegated to the
+ * serializers registered in the ObjectMapper (e.g. JavaTimeModule).
+ * 
+ * Subclasses are left to Jackson, since they may declare more properties,
+ * and so are mappers with a naming strategy, alphabetical order, mix-ins or
+ * (for ErroDTO) a default inclusion other than ALWAYS.
+ * 
+ * Uso:
+ * objectMapper.registerModule(new ProblemDetailModule());
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class ProblemDetailModule extends Module {
+
+	private static final Version VERSION = new Version(2, 1, 0, null, "com.dms.useful", "dms-core");
+
+	@Override
+	public String getModuleName() {
+		return ProblemDetailModule.class.getSimpleName();
+	}
+
+	@Override
+	public Version version() {
+		return VERSION;
+	}
+
+	@Override
+	public void setupModule(SetupContext context) {
+		context.addSerializers(new Serializers.Base() {
+			@Override
+			public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc) {
+				Class<?> raw = type.getRawClass();
+				if (!isDefaultContract(config, raw)) {
+					return null;
+				}
+				if (raw == ProblemDetail.class) {
+					return ProblemDetailSerializer.INSTANCE;
+				} else if (raw == ErrorDetails.class) {
+					return ErrorDetailsSerializer.INSTANCE;
+				} else if (raw == ErroDTO.class) {
+					return ErroDTOSerializer.INSTANCE;
+				}
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * The serializers write the default names, order and inclusion. Mappers
+	 * configured otherwise (naming strategy, alphabetical order, mix-ins or,
+	 * for ErroDTO, a default inclusion other than ALWAYS) keep the bean
+	 * serializer, so their output does not change.
+	 */
+	static boolean isDefaultContract(SerializationConfig config, Class<?> raw) {
+		if (raw != ProblemDetail.class && raw != ErrorDetails.class && raw != ErroDTO.class) {
+			return false;
+		}
+		if (config.getPropertyNamingStrategy() != null
+				|| config.isEnabled(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+				|| config.findMixInClassFor(raw) != null) {
+			return false;
+		}
+		JsonInclude.Include inclusion = config.getDefaultPropertyInclusion(raw).getValueInclusion();
+		if (raw == ErroDTO.class) {
+			return inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+		}
+		// ProblemDetail e ErrorDetails: o @JsonInclude(NON_NULL) da classe prevalece
+		return true;
+	}
+
+	static final class ProblemDetailSerializer extends StdSerializer<ProblemDetail> {
+
+		private static final long serialVersionUID = 1L;
+
+		static final ProblemDetailSerializer INSTANCE = new ProblemDetailSerializer();
+
+		private ProblemDetailSerializer() {
+			super(ProblemDetail.class);
+		}
+
+		@Override
+		public void serialize(ProblemDetail value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+			gen.writeStartObject(value);
+			writeString(gen, "type", value.getType());
+			gen.writeNumberField("status", value.getStatus());
+			writeString(gen, "title", value.getTitle());
+			writeString(gen, "detail", value.getDetail());
+			URI instance = value.getInstance();
+			if (instance != null) {
+				gen.writeStringField("instance", instance.toString());
+			}
+			if (value.getTimestamp() != null) {
+				provider.defaultSerializeField("timestamp", value.getTimestamp(), gen);
+			}
+			Map<String, Object> properties = value.getProperties();
+			if (properties != null) {
+				provider.defaultSerializeField("properties", properties, gen);
+			}
+			gen.writeEndObject();
+		}
+	}
+
+	static final class ErrorDetailsSerializer extends StdSerializer<ErrorDetails> {
+
+		private static final long serialVersionUID = 1L;
+
+		static final ErrorDetailsSerializer INSTANCE = new ErrorDetailsSerializer();
+
+		private ErrorDetailsSerializer() {
+			super(ErrorDetails.class);
+		}
+
+		@Override
+		public void serialize(ErrorDetails value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+			gen.writeStartObject(value);
+			gen.writeNumberField("status", value.getStatus());
+			writeString(gen, "type", value.getType());
+			writeString(gen, "title", value.getTitle());
+			writeString(gen, "detail", value.getDetail());
+			writeString(gen, "instance", value.getInstance());
+			if (value.getTimestamp() != null) {
+				provider.defaultSerializeField("timestamp", value.getTimestamp(), gen);
+			}
+			gen.writeEndObject();
+		}
+	}
+
+	static final class ErroDTOSerializer extends StdSerializer<ErroDTO> {
+
+		private static final long serialVersionUID = 1L;
+
+		static final ErroDTOSerializer INSTANCE = new ErroDTOSerializer();
+
+		private ErroDTOSerializer() {
+			super(ErroDTO.class);
+		}
+
+		@Override
+		public void serialize(ErroDTO value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+			// ErroDTO has no @JsonInclude: nulls are written
+			gen.writeStartObject(value);
+			gen.writeStringField("messageUser", value.getMessageUser());
+			gen.writeStringField("messageDeveloper", value.getMessageDeveloper());
+			gen.writeEndObject();
+		}
+	}
+
+	private static void writeString(JsonGenerator gen, String name, String value) throws IOException {
+		if (value != null) {
+			gen.writeStringField(name, value);
+		}
+	}
+}
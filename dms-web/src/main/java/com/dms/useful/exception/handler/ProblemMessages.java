@@ -0,0 +1,294 @@
+package com.dms.useful.exception.handler;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@code ProblemMessages} resolves the localized {@code detail} of an error,
+ * from a properties file ({@code messages.properties} by default).
+ * 
+ * <pre>
+ * Chaves (a primeira encontrada é usada):
+ * - nome da classe da exceção, ex.:
+ *   com.dms.useful.exception.EntityNotFoundException=Registro não encontrado: {0}
+ * - "resource" + path do ProblemType, ex.:
+ *   resource.not-found=Recurso não encontrado
+ * O argumento {0} é o detail original.
+ * 
+ * The templates are compiled once, into an immutable table per Locale, when
+ * the instance is created or reloaded. Only the keys looked up here are
+ * compiled (exception classes and ProblemType codes): the other messages of
+ * the file, e.g. Bean Validation ones with {min}, are ignored. An invalid
+ * pattern is logged and skipped. Reading is a volatile read and a HashMap
+ * lookup: no lock and no MessageFormat parsing per error. The bundles are
+ * not kept in the ResourceBundle cache, so reload() reads the files again.
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class ProblemMessages {
+
+	private static final Log logger = LogFactory.getLog(ProblemMessages.class);
+
+	private static final Set<String> PROBLEM_TYPE_CODES = problemTypeCodes();
+
+	/** somente .properties, sem fallback para o Locale padrão e sem cache */
+	private static final ResourceBundle.Control CONTROL = new ResourceBundle.Control() {
+		@Override
+		public List<String> getFormats(String baseName) {
+			return FORMAT_PROPERTIES;
+		}
+
+		@Override
+		public Locale getFallbackLocale(String baseName, Locale locale) {
+			return null;
+		}
+
+		@Override
+		public long getTimeToLive(String baseName, Locale locale) {
+			return TTL_DONT_CACHE;
+		}
+	};
+
+	private final String basename;
+	private final ClassLoader classLoader;
+	private final Set<Locale> locales;
+	private volatile Map<Locale, Map<String, Template>> tables;
+
+	/**
+	 * Messages of {@code messages.properties}, for the default Locale.
+	 */
+	public ProblemMessages() {
+		this("messages", Locale.getDefault());
+	}
+
+	/**
+	 * @param basename of the properties files, e.g. {@code messages}
+	 * @param locales  Locales compiled in advance; any other Locale falls back
+	 *                 to its language and then to the base file
+	 */
+	public ProblemMessages(String basename, Locale... locales) {
+		this(basename, ProblemMessages.class.getClassLoader(), locales);
+	}
+
+	ProblemMessages(String basename, ClassLoader classLoader, Locale... locales) {
+		Assert.hasText(basename, "Basename is required");
+		this.basename = basename;
+		this.classLoader = classLoader;
+		this.locales = new LinkedHashSet<>(Arrays.asList(locales));
+		reload();
+	}
+
+	/**
+	 * Compiles the templates again, from the properties files, and replaces
+	 * the tables at once. Messages that are not a valid MessageFormat
+	 * pattern are logged and skipped.
+	 */
+	public void reload() {
+		Set<Locale> all = new LinkedHashSet<>();
+		all.add(Locale.ROOT);
+		for (Locale locale : this.locales) {
+			all.add(locale);
+			all.add(new Locale(locale.getLanguage()));
+		}
+
+		Map<Locale, Map<String, Template>> compiled = new HashMap<>();
+		for (Locale locale : all) {
+			ResourceBundle bundle = bundle(locale);
+			if (bundle == null) {
+				continue;
+			}
+			Map<String, Template> table = new HashMap<>();
+			for (String key : bundle.keySet()) {
+				if (!isLookedUp(key)) {
+					continue;
+				}
+				try {
+					table.put(key, Template.compile(bundle.getString(key), locale));
+				} catch (IllegalArgumentException e) {
+					if (logger.isWarnEnabled()) {
+						logger.warn("Ignoring invalid message " + key + " in " + this.basename
+								+ (locale.toString().isEmpty() ? "" : "_" + locale) + ": " + e.getMessage());
+					}
+				}
+			}
+			compiled.put(locale, Collections.unmodifiableMap(table));
+		}
+		this.tables = Collections.unmodifiableMap(compiled);
+	}
+
+	/**
+	 * Chaves consultadas pelo {@link #resolve}: código de um ProblemType ou
+	 * nome de uma classe de exceção (do ClassLoader dos arquivos ou da
+	 * aplicação).
+	 */
+	private boolean isLookedUp(String key) {
+		return PROBLEM_TYPE_CODES.contains(key) || isThrowable(key, this.classLoader)
+				|| isThrowable(key, ClassUtils.getDefaultClassLoader());
+	}
+
+	private static boolean isThrowable(String key, @Nullable ClassLoader classLoader) {
+		try {
+			return Throwable.class.isAssignableFrom(ClassUtils.forName(key, classLoader));
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	private static Set<String> problemTypeCodes() {
+		Set<String> codes = new LinkedHashSet<>();
+		for (ProblemType problemType : ProblemType.values()) {
+			codes.add(problemType.getCode());
+		}
+		return Collections.unmodifiableSet(codes);
+	}
+
+	@Nullable
+	private ResourceBundle bundle(Locale locale) {
+		try {
+			ResourceBundle bundle = ResourceBundle.getBundle(this.basename, locale, this.classLoader, CONTROL);
+			return bundle.getLocale().equals(locale) ? bundle : null;
+		} catch (MissingResourceException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Localized detail of an error.
+	 * 
+	 * @param ex          the exception handled
+	 * @param problemType type of the error, may be {@code null}
+	 * @param detail      the original detail, argument {0} of the message
+	 * @param locale      of the request
+	 * @return the localized detail, or {@code null} if there is no message
+	 */
+	@Nullable
+	public String resolve(Class<?> ex, @Nullable ProblemType problemType, @Nullable String detail, Locale locale) {
+		Map<Locale, Map<String, Template>> current = this.tables;
+		if (current.isEmpty()) {
+			return null;
+		}
+		Template template = find(current, ex.getName(), locale);
+		if (template == null && problemType != null) {
+			template = find(current, problemType.getCode(), locale);
+		}
+		return template == null ? null : template.format(detail);
+	}
+
+	@Nullable
+	private static Template find(Map<Locale, Map<String, Template>> tables, String key, Locale locale) {
+		Template template = get(tables, locale, key);
+		if (template == null && !locale.getCountry().isEmpty()) {
+			template = get(tables, new Locale(locale.getLanguage()), key);
+		}
+		if (template == null) {
+			template = get(tables, Locale.ROOT, key);
+		}
+		return template;
+	}
+
+	@Nullable
+	private static Template get(Map<Locale, Map<String, Template>> tables, Locale locale, String key) {
+		Map<String, Template> table = tables.get(locale);
+		return table == null ? null : table.get(key);
+	}
+
+	/**
+	 * A message compiled in literal parts and {0} arguments. Patterns with
+	 * format types ({0,number}...) keep a MessageFormat parsed at compile
+	 * time, cloned per call because it is not thread-safe.
+	 */
+	abstract static class Template {
+
+		abstract String format(@Nullable String detail);
+
+		static Template compile(String pattern, Locale locale) {
+			List<String> parts = new ArrayList<>();
+			StringBuilder literal = new StringBuilder();
+			boolean quoted = false;
+			for (int i = 0; i < pattern.length(); i++) {
+				char c = pattern.charAt(i);
+				if (c == '\'') {
+					if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+						literal.append('\'');
+						i++;
+					} else {
+						quoted = !quoted;
+					}
+				} else if (c == '{' && !quoted) {
+					int end = pattern.indexOf('}', i);
+					if (end != i + 2 || pattern.charAt(i + 1) != '0') {
+						return new MessageFormatTemplate(pattern, locale);
+					}
+					parts.add(literal.toString());
+					literal.setLength(0);
+					i = end;
+				} else {
+					literal.append(c);
+				}
+			}
+			parts.add(literal.toString());
+			return new CompiledTemplate(parts.toArray(new String[0]));
+		}
+	}
+
+	private static final class CompiledTemplate extends Template {
+
+		private final String[] parts;
+		private final int length;
+
+		private CompiledTemplate(String[] parts) {
+			this.parts = parts;
+			int total = 0;
+			for (String part : parts) {
+				total += part.length();
+			}
+			this.length = total;
+		}
+
+		@Override
+		String format(@Nullable String detail) {
+			if (this.parts.length == 1) {
+				return this.parts[0];
+			}
+			String argument = String.valueOf(detail);
+			StringBuilder message = new StringBuilder(this.length + argument.length() * (this.parts.length - 1));
+			message.append(this.parts[0]);
+			for (int i = 1; i < this.parts.length; i++) {
+				message.append(argument).append(this.parts[i]);
+			}
+			return message.toString();
+		}
+	}
+
+	private static final class MessageFormatTemplate extends Template {
+
+		private final MessageFormat prototype;
+
+		private MessageFormatTemplate(String pattern, Locale locale) {
+			this.prototype = new MessageFormat(pattern, locale);
+		}
+
+		@Override
+		String format(@Nullable String detail) {
+			return ((MessageFormat) this.prototype.clone()).format(new Object[] { detail });
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.dms.useful.exception.handler;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR da serialização de um {@code ProblemDetail}: pelo handler
+ * (CBOR, ou JSON pelo {@code ProblemDetailCache}, com ou sem acerto) ou, no
+ * JSON deixado aos message converters, pelo
+ * {@link ProblemRenderingHttpMessageConverter}. Desabilitado por padrão,
+ * como o {@link ExceptionHandlingEvent}.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+@Name(ProblemRenderingEvent.NAME)
+@Label("Problem Rendering")
+@Category({ "DMS", "Error Handling" })
+@Description("ProblemDetail serialized by the ResourcesExceptionHandler or the message converter")
+@Enabled(false)
+@StackTrace(false)
+class ProblemRenderingEvent extends Event {
+
+	static final String NAME = "com.dms.useful.ProblemRendering";
+
+	@Label("Content Type")
+	String contentType;
+
+	@Label("Size")
+	@DataAmount
+	long size;
+}
@@ -0,0 +1,98 @@
+package com.dms.useful.exception.handler;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@code MappingJackson2HttpMessageConverter} que registra o
+ * {@link ProblemRenderingEvent} (JFR) dos corpos {@code ProblemDetail} que
+ * escreve, o caminho JSON padrão do {@code ResourcesExceptionHandler}.
+ * Outros corpos, um evento desabilitado ou as chamadas dentro de
+ * {@link ResourcesExceptionHandler#withoutSideEffects} são escritos como
+ * pela superclasse.
+ * 
+ * <pre>
+ * Ex. (substitui o converter do Spring Boot):
+ * &#64;Bean
+ * public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+ *         ObjectMapper objectMapper) {
+ *     return new ProblemRenderingHttpMessageConverter(objectMapper);
+ * }
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class ProblemRenderingHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+	public ProblemRenderingHttpMessageConverter(ObjectMapper objectMapper) {
+		super(objectMapper);
+	}
+
+	@Override
+	protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		if (!(object instanceof ProblemDetail)) {
+			super.writeInternal(object, type, outputMessage);
+			return;
+		}
+		ProblemRenderingEvent event = new ProblemRenderingEvent();
+		if (!event.isEnabled() || ResourcesExceptionHandler.isSynthetic()) {
+			super.writeInternal(object, type, outputMessage);
+			return;
+		}
+		event.begin();
+		CountingOutputMessage counting = new CountingOutputMessage(outputMessage);
+		super.writeInternal(object, type, counting);
+		if (event.shouldCommit()) {
+			event.contentType = String.valueOf(outputMessage.getHeaders().getContentType());
+			event.size = counting.count;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Conta os bytes escritos no corpo.
+	 */
+	private static final class CountingOutputMessage implements HttpOutputMessage {
+
+		private final HttpOutputMessage delegate;
+		private long count;
+
+		private CountingOutputMessage(HttpOutputMessage delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.delegate.getHeaders();
+		}
+
+		@Override
+		public OutputStream getBody() throws IOException {
+			return new FilterOutputStream(this.delegate.getBody()) {
+				@Override
+				public void write(int b) throws IOException {
+					this.out.write(b);
+					count++;
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException {
+					this.out.write(b, off, len);
+					count += len;
+				}
+			};
+		}
+	}
+}
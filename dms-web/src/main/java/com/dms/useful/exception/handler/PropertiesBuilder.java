@@ -0,0 +1,130 @@
+package com.dms.useful.exception.handler;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds {@code ProblemDetail.properties} within {@link ProblemDetailLimits}.
+ * Entries beyond the limit are only counted, and reported in
+ * {@link ProblemDetailLimits#OMITTED_PROPERTIES}, which counts as one of the
+ * entries of the limit, as {@link ProblemDetailLimits#TRUNCATED} does.
+ *
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+class PropertiesBuilder {
+
+	private final ProblemDetailLimits limits;
+	private final Map<String, Object> properties = new LinkedHashMap<>();
+	/** key informada -&gt; nome usado nas propriedades (truncado e único) */
+	private final Map<String, String> names = new HashMap<>();
+	private int omitted;
+	private boolean truncated;
+
+	PropertiesBuilder(ProblemDetailLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Continues properties already built within the limits: the entries are
+	 * kept as they are and the omitted count, if any, goes on.
+	 */
+	PropertiesBuilder(ProblemDetailLimits limits, Map<String, Object> properties) {
+		this.limits = limits;
+		for (Map.Entry<String, Object> entry : properties.entrySet()) {
+			if (ProblemDetailLimits.OMITTED_PROPERTIES.equals(entry.getKey())) {
+				this.omitted += ((Number) entry.getValue()).intValue();
+			} else if (ProblemDetailLimits.TRUNCATED.equals(entry.getKey())) {
+				this.truncated = Boolean.TRUE.equals(entry.getValue());
+			} else {
+				this.properties.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	boolean isFull() {
+		return this.properties.size() >= this.limits.getMaxProperties();
+	}
+
+	/**
+	 * Adds the message. Messages of the same key are joined.
+	 */
+	PropertiesBuilder add(String key, String message) {
+		String name = this.names.get(key);
+		if (name != null) {
+			String value = (String) this.properties.get(name);
+			if (value.length() < this.limits.getMaxValueLength()) {
+				this.properties.put(name, this.limits.truncateValue(value + ", " + message));
+			}
+		} else if (isFull()) {
+			this.omitted++;
+		} else {
+			name = uniqueName(key);
+			this.names.put(key, name);
+			this.properties.put(name, this.limits.truncateValue(message));
+		}
+		return this;
+	}
+
+	/**
+	 * Counts entries that were not even visited.
+	 */
+	PropertiesBuilder omit(int count) {
+		this.omitted += count;
+		return this;
+	}
+
+	/**
+	 * Marks the entries as incomplete at the source, not only by the limits.
+	 */
+	PropertiesBuilder truncated() {
+		this.truncated = true;
+		return this;
+	}
+
+	Map<String, Object> build() {
+		// os marcadores ocupam entradas do limite
+		while (!this.properties.isEmpty() && this.properties.size() + markers() > this.limits.getMaxProperties()) {
+			removeLast();
+			this.omitted++;
+		}
+		if (this.omitted > 0) {
+			this.properties.put(ProblemDetailLimits.OMITTED_PROPERTIES, this.omitted);
+		}
+		if (this.truncated) {
+			this.properties.put(ProblemDetailLimits.TRUNCATED, Boolean.TRUE);
+		}
+		return this.properties;
+	}
+
+	private int markers() {
+		return (this.omitted > 0 ? 1 : 0) + (this.truncated ? 1 : 0);
+	}
+
+	/**
+	 * Keys truncated to the same name get a {@code ~2}, {@code ~3}... suffix
+	 * instead of joining or overwriting each other.
+	 */
+	private String uniqueName(String key) {
+		String name = this.limits.truncateValue(key);
+		for (int i = 2; this.properties.containsKey(name) || ProblemDetailLimits.OMITTED_PROPERTIES.equals(name)
+				|| ProblemDetailLimits.TRUNCATED.equals(name); i++) {
+			String suffix = "~" + i;
+			String base = this.limits.truncateValue(key);
+			int length = Math.min(base.length(), this.limits.getMaxValueLength() - suffix.length());
+			name = base.substring(0, Math.max(length, 0)) + suffix;
+		}
+		return name;
+	}
+
+	private void removeLast() {
+		String last = null;
+		for (Iterator<String> iterator = this.properties.keySet().iterator(); iterator.hasNext();) {
+			last = iterator.next();
+		}
+		this.properties.remove(last);
+		this.names.values().remove(last);
+	}
+}
@@ -0,0 +1,829 @@
+package com.dms.useful.exception.handler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.NoHandlerFoundException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.dms.useful.exception.BulkValidationException;
+import com.dms.useful.exception.ConcurrencyLimitExceededException;
+import com.dms.useful.exception.DataAccessContentionException;
+import com.dms.useful.exception.DatabaseUnavailableException;
+import com.dms.useful.exception.EntityNotFoundException;
+import com.dms.useful.exception.IdempotencyKeyConflictException;
+import com.dms.useful.exception.RequestDeadlineExceededException;
+import com.dms.useful.exception.VersionConflictException;
+import com.dms.useful.route.NegativeRouteCache;
+import com.dms.useful.trace.TraceContext;
+
+/**
+ * Classe abstrata que manipula as excessões da API.
+ * 
+ * <pre>
+ * Para implementar no projeto, basta extender e anotar com
+ * &#64;ControllerAdvice
+ * 
+ * Para implementar mensagens personalizadas para o usuário
+ * criar no path src/main/resources o arquivo
+ * messages.properties
+ * Ex. de menssagem:
+ * resource.not-found=Recurso n\u00E3o encontrado
+ * 
+ * Também pode ser usada a classe da exceção como chave, e {0} para o
+ * detail original:
+ * com.dms.useful.exception.EntityNotFoundException=Registro n\u00E3o encontrado: {0}
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ *
+ * @since 1.1.6
+ * @version 2.0.3
+ */
+public abstract class ResourcesExceptionHandler extends ResponseEntityExceptionHandler {
+
+	/**
+	 * Header das respostas de erro com o trace-id do {@link TraceContext}.
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+	/**
+	 * Propriedade do {@code ProblemDetail} com o trace-id do
+	 * {@link TraceContext}.
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String TRACE_ID_PROPERTY = "traceId";
+
+	/** ExceptionHandlingEvent iniciado na montagem, encerrado no handleExceptionInternal */
+	private static final ThreadLocal<ExceptionHandlingEvent> HANDLING = new ThreadLocal<>();
+
+	/** montagens sintéticas na thread: sem caches nem eventos JFR */
+	private static final ThreadLocal<Boolean> SYNTHETIC = new ThreadLocal<>();
+
+	private final ProblemDetailCodec problemDetailCodec = new ProblemDetailCodec();
+	private final ProblemMessages problemMessages = new ProblemMessages();
+
+	private Map<String, Object> criarListaErros(BindingResult bindingResult) {
+		return criarListaErros(bindingResult.getFieldErrors(), FieldError::getField,
+				fieldError -> String.valueOf(fieldError.getDefaultMessage()));
+	}
+
+	private Map<String, Object> criarListaErros(Set<ConstraintViolation<?>> violations) {
+		return criarListaErros(violations, violation -> violation.getPropertyPath().toString(),
+				ConstraintViolation::getMessage);
+	}
+
+	private Map<String, Object> criarListaErros(Map<String, String> violations) {
+		return criarListaErros(violations.entrySet(), Map.Entry::getKey, Map.Entry::getValue);
+	}
+
+	/**
+	 * Propriedades (campo, mensagem) dentro dos {@link ProblemDetailLimits}.
+	 */
+	private <T> Map<String, Object> criarListaErros(Collection<T> errors, Function<T, String> field,
+			Function<T, String> message) {
+		beginHandling();
+		PropertiesBuilder properties = new PropertiesBuilder(getProblemDetailLimits());
+		int remaining = errors.size();
+
+		for (T error : errors) {
+			if (properties.isFull()) {
+				properties.omit(remaining);
+				break;
+			}
+			properties.add(field.apply(error), message.apply(error));
+			remaining--;
+		}
+		return properties.build();
+	}
+
+	/**
+	 * Limites de tamanho do {@code ProblemDetail}: quantidade de propriedades,
+	 * tamanho de cada valor e do detail. Sobrescrever para alterar os limites.
+	 * 
+	 * @return {@link ProblemDetailLimits#DEFAULT}
+	 */
+	protected ProblemDetailLimits getProblemDetailLimits() {
+		return ProblemDetailLimits.DEFAULT;
+	}
+
+	/**
+	 * Cache opcional de paths sem handler, consultado pelo
+	 * {@code NegativeRouteFilter}. Sobrescrever para habilitar.
+	 * 
+	 * @return {@code null}, sem cache
+	 */
+	@Nullable
+	protected NegativeRouteCache getNegativeRouteCache() {
+		return null;
+	}
+
+	/**
+	 * Mensagens personalizadas do messages.properties, por classe da exceção
+	 * ou {@code ProblemType}. Sobrescrever para usar outro arquivo, outros
+	 * Locales ou para desabilitar (retornando {@code null}).
+	 * 
+	 * @return o {@code ProblemMessages} do handler
+	 */
+	@Nullable
+	protected ProblemMessages getProblemMessages() {
+		return this.problemMessages;
+	}
+
+	/**
+	 * Codificação binária (CBOR) do {@code ProblemDetail}, usada quando o
+	 * header Accept a pede.
+	 * 
+	 * @return o {@code ProblemDetailCodec} do handler
+	 */
+	protected ProblemDetailCodec getProblemDetailCodec() {
+		return this.problemDetailCodec;
+	}
+
+	/**
+	 * Se o trace-id do {@link TraceContext} vai também nas propriedades do
+	 * {@code ProblemDetail}, dentro dos {@link ProblemDetailLimits}. Por
+	 * padrão vai só no header {@link #TRACE_ID_HEADER}: corpos com
+	 * propriedades não entram no {@code ProblemDetailCache} nem no
+	 * {@code NegativeRouteCache}.
+	 * 
+	 * @return {@code false}
+	 */
+	protected boolean isTraceIdInProperties() {
+		return false;
+	}
+
+	/**
+	 * Cache opcional dos corpos de erro serializados. Sobrescrever para
+	 * habilitar.
+	 * 
+	 * @return {@code null}, sem cache
+	 */
+	@Nullable
+	protected ProblemDetailCache getProblemDetailCache() {
+		return null;
+	}
+
+	private void localize(Exception ex, ProblemDetail problemDetail, WebRequest request) {
+		ProblemMessages messages = getProblemMessages();
+		if (messages == null) {
+			return;
+		}
+		Locale locale = request.getLocale() != null ? request.getLocale() : Locale.getDefault();
+		String detail = messages.resolve(ex.getClass(), ProblemType.fromUri(problemDetail.getType()),
+				problemDetail.getDetail(), locale);
+		if (detail != null) {
+			problemDetail.detail(getProblemDetailLimits().truncateDetail(detail));
+		}
+	}
+
+	private List<MediaType> getAccept(WebRequest request) {
+		String[] accept = request.getHeaderValues(HttpHeaders.ACCEPT);
+		if (accept == null) {
+			return Collections.emptyList();
+		}
+		try {
+			return MediaType.parseMediaTypes(Arrays.asList(accept));
+		} catch (InvalidMediaTypeException e) {
+			return Collections.emptyList();
+		}
+	}
+
+	private URI getURI(WebRequest request) {
+		HttpServletRequest req = ((ServletWebRequest) request).getRequest();
+		return URI.create(req.getRequestURI());
+	}
+
+	/**
+	 * Executa {@code action} sem deixar estado de produção: nesta thread, o
+	 * {@code NegativeRouteCache} e o {@code ProblemDetailCache} não são
+	 * consultados nem preenchidos, e os eventos JFR do handler (e do
+	 * {@link ProblemRenderingHttpMessageConverter}) não são registrados. Usado
+	 * pelo {@code ErrorPathWarmUp}.
+	 * 
+	 * @param action as chamadas sintéticas
+	 * @return o resultado de {@code action}
+	 */
+	public static <T> T withoutSideEffects(Supplier<T> action) {
+		Assert.notNull(action, "Action must not be null");
+		Boolean previous = SYNTHETIC.get();
+		SYNTHETIC.set(Boolean.TRUE);
+		try {
+			return action.get();
+		} finally {
+			if (previous == null) {
+				SYNTHETIC.remove();
+			}
+		}
+	}
+
+	static boolean isSynthetic() {
+		return SYNTHETIC.get() != null;
+	}
+
+	/**
+	 * Inicia o {@link ExceptionHandlingEvent} no primeiro passo da montagem
+	 * do {@code ProblemDetail} (causa raiz, lista de erros ou
+	 * createProblemDetail), para que o evento meça também a montagem.
+	 */
+	private static void beginHandling() {
+		if (HANDLING.get() != null || isSynthetic()) {
+			return;
+		}
+		ExceptionHandlingEvent event = new ExceptionHandlingEvent();
+		if (event.isEnabled()) {
+			event.begin();
+			HANDLING.set(event);
+		}
+	}
+
+	/**
+	 * Registra o {@link ExceptionHandlingEvent} (JFR) quando habilitado.
+	 */
+	@Override
+	protected ResponseEntity<Object> handleExceptionInternal(Exception ex, @Nullable Object body, HttpHeaders headers,
+			HttpStatus status, WebRequest request) {
+		ExceptionHandlingEvent event = HANDLING.get();
+		if (event != null) {
+			HANDLING.remove();
+		} else {
+			event = new ExceptionHandlingEvent();
+			event.begin();
+		}
+		ResponseEntity<Object> response = renderException(ex, body, headers, status, request);
+		if (event.shouldCommit() && !isSynthetic()) {
+			event.exceptionClass = ex.getClass();
+			if (body instanceof ProblemDetail) {
+				String type = ((ProblemDetail) body).getType();
+				ProblemType problemType = ProblemType.fromUri(type);
+				event.problemType = problemType != null ? problemType.name() : type;
+			}
+			event.status = status.value();
+			event.commit();
+		}
+		return response;
+	}
+
+	private ResponseEntity<Object> renderException(Exception ex, @Nullable Object body, HttpHeaders headers,
+			HttpStatus status, WebRequest request) {
+		if (body == null) {
+			body = ProblemDetail.builder("https://api.dms.com.br/errors", status)
+					.title(status.getReasonPhrase())
+					.instance(getURI(request))
+					.timestamp(OffsetDateTime.now());
+		} else if (body instanceof String) {
+			body = ProblemDetail.builder("https://api.dms.com.br/errors", status)
+					.title(status.getReasonPhrase())
+					.title((String) body)
+					.instance(getURI(request))
+					.timestamp(OffsetDateTime.now());
+		}
+
+		if (body instanceof ProblemDetail) {
+			localize(ex, (ProblemDetail) body, request);
+		}
+
+		CharSequence traceId = TraceContext.traceId();
+		if (traceId != null) {
+			String id = traceId.toString();
+			HttpHeaders traceHeaders = new HttpHeaders();
+			traceHeaders.putAll(headers);
+			traceHeaders.set(TRACE_ID_HEADER, id);
+			headers = traceHeaders;
+			if (body instanceof ProblemDetail && isTraceIdInProperties()) {
+				ProblemDetail problemDetail = (ProblemDetail) body;
+				PropertiesBuilder properties = problemDetail.getProperties() != null
+						? new PropertiesBuilder(getProblemDetailLimits(), problemDetail.getProperties())
+						: new PropertiesBuilder(getProblemDetailLimits());
+				problemDetail.properties(properties.add(TRACE_ID_PROPERTY, id).build());
+			}
+		}
+
+		if (body instanceof ProblemDetail && getProblemDetailCodec().isCborAcceptable(getAccept(request))) {
+			try {
+				ProblemRenderingEvent rendering = new ProblemRenderingEvent();
+				rendering.begin();
+				byte[] serialized = getProblemDetailCodec().encode((ProblemDetail) body);
+				commit(rendering, ProblemDetailCodec.APPLICATION_CBOR, serialized);
+				HttpHeaders responseHeaders = new HttpHeaders();
+				responseHeaders.putAll(headers);
+				responseHeaders.setContentType(ProblemDetailCodec.APPLICATION_CBOR);
+				return new ResponseEntity<>(serialized, responseHeaders, status);
+			} catch (IOException e) {
+				// segue com o corpo em JSON
+			}
+		}
+
+		ProblemDetailCache cache = isSynthetic() ? null : getProblemDetailCache();
+		if (cache != null && body instanceof ProblemDetail) {
+			ProblemRenderingEvent rendering = new ProblemRenderingEvent();
+			rendering.begin();
+			byte[] serialized = cache.get((ProblemDetail) body);
+			if (serialized != null) {
+				commit(rendering, ProblemDetailCache.APPLICATION_PROBLEM_JSON, serialized);
+				HttpHeaders responseHeaders = new HttpHeaders();
+				responseHeaders.putAll(headers);
+				responseHeaders.setContentType(ProblemDetailCache.APPLICATION_PROBLEM_JSON);
+				return new ResponseEntity<>(serialized, responseHeaders, status);
+			}
+		}
+
+		return new ResponseEntity<>(body, headers, status);
+	};
+
+	private static void commit(ProblemRenderingEvent event, MediaType contentType, byte[] serialized) {
+		if (event.shouldCommit() && !isSynthetic()) {
+			event.contentType = contentType.toString();
+			event.size = serialized.length;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Mensagem da causa raiz, como {@link ExceptionUtils#getRootCauseMessage},
+	 * registrando o {@link RootCauseResolutionEvent} (JFR) quando habilitado.
+	 */
+	private String getRootCauseMessage(Throwable ex) {
+		beginHandling();
+		RootCauseResolutionEvent event = new RootCauseResolutionEvent();
+		event.begin();
+		List<Throwable> chain = ExceptionUtils.getThrowableList(ex);
+		Throwable root = chain.get(chain.size() - 1);
+		String message = ExceptionUtils.getMessage(root);
+		if (event.shouldCommit() && !isSynthetic()) {
+			event.exceptionClass = ex.getClass();
+			event.rootCauseClass = root.getClass();
+			event.depth = chain.size() - 1;
+			event.commit();
+		}
+		return message;
+	}
+
+	@Override
+	protected ResponseEntity<Object> handleHttpMessageNotReadable(HttpMessageNotReadableException ex,
+			HttpHeaders headers, HttpStatus status, WebRequest request) {
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.HTTP_MESSAGE_NOT_READABLE,
+				getRootCauseMessage(ex), request);
+
+		return handleExceptionInternal(ex, error, headers, status, request);
+	}
+
+	/**
+	 * Exception to be thrown when validation on an argument annotated with
+	 * {@code @Valid} fails.
+	 * 
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
+			HttpHeaders headers, HttpStatus status, WebRequest request) {
+
+		Map<String, Object> errorsList = criarListaErros(ex.getBindingResult());
+		ProblemDetail error = createProblemDetail(status, ProblemType.METHOD_ARGUMENT_NOT_VALID, "Por favor, verificar as propriedades do objeto properties", request)
+				.properties(errorsList);
+		return handleExceptionInternal(ex, error, headers, status, request);
+	}
+
+	/**
+	 * Exception to be thrown by {@code BulkValidator} when elements of a
+	 * collection fail validation. The violations are keyed by indexed property
+	 * path, e.g. {@code items[42].email}. When the validation stopped early
+	 * (fail-fast), {@link ProblemDetailLimits#TRUNCATED} is {@code true}.
+	 */
+	@ExceptionHandler(BulkValidationException.class)
+	public ResponseEntity<Object> handleBulkValidationException(BulkValidationException ex, WebRequest request) {
+
+		var status = HttpStatus.BAD_REQUEST;
+
+		Map<String, Object> errorsList = criarListaErros(ex.getViolations());
+		if (ex.isTruncated()) {
+			// fail-fast: pode haver mais violações que as informadas
+			errorsList = new PropertiesBuilder(getProblemDetailLimits(), errorsList).truncated().build();
+		}
+		ProblemDetail error = createProblemDetail(status, ProblemType.METHOD_ARGUMENT_NOT_VALID, "Por favor, verificar as propriedades do objeto properties", request)
+				.properties(errorsList);
+		return handleExceptionInternal(ex, error, new HttpHeaders(), status, request);
+	}
+
+	@ExceptionHandler(EmptyResultDataAccessException.class)
+	public ResponseEntity<Object> handleEmptyResultDataAccessException(EmptyResultDataAccessException ex, WebRequest request) {
+		
+		var status = HttpStatus.NOT_FOUND;
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.EMPTY_RESULT_DATA_ACCESS,
+				getRootCauseMessage(ex), request);
+
+		return handleExceptionInternal(ex, error, new HttpHeaders(), status, request);
+	}
+
+	@ExceptionHandler(NoSuchElementException.class)
+	public ResponseEntity<Object> handleNoSuchElementException(NoSuchElementException ex, WebRequest request) {
+		
+		var status = HttpStatus.NOT_FOUND;
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.NO_SUCH_ELEMENT,
+				ex.getMessage(), request);
+
+		return handleExceptionInternal(ex, error, new HttpHeaders(), status, request);
+	}
+
+	public final ResponseEntity<Object> handlerResourcesException(Exception ex, WebRequest request) throws Exception {
+
+		// um handler que lançou exceção antes do handleExceptionInternal não deixa evento pendente
+		HANDLING.remove();
+		try {
+			if (ex instanceof ConstraintViolationException) {
+				return handleConstraintViolationException((ConstraintViolationException) ex, request);
+			} else if (ex instanceof DataIntegrityViolationException) {
+				return handleDataIntegrityViolationException((DataIntegrityViolationException) ex, request);
+			} else if (ex instanceof EmptyResultDataAccessException) {
+				return handleEmptyResultDataAccessException((EmptyResultDataAccessException) ex, request);
+			} else if (ex instanceof NoSuchElementException) {
+				return handleNoSuchElementException((NoSuchElementException) ex, request);
+			} else if (ex instanceof BulkValidationException) {
+				return handleBulkValidationException((BulkValidationException) ex, request);
+			} else if (ex instanceof ConcurrencyLimitExceededException) {
+				return handleConcurrencyLimitExceededException((ConcurrencyLimitExceededException) ex, request);
+			} else if (ex instanceof DatabaseUnavailableException) {
+				return handleDatabaseUnavailableException((DatabaseUnavailableException) ex, request);
+			} else if (ex instanceof IdempotencyKeyConflictException) {
+				return handleIdempotencyKeyConflictException((IdempotencyKeyConflictException) ex, request);
+			} else if (ex instanceof DataAccessContentionException) {
+				return handleDataAccessContentionException((DataAccessContentionException) ex, request);
+			} else if (ex instanceof QueryTimeoutException || ex instanceof TransactionTimedOutException
+					|| ex instanceof RequestDeadlineExceededException) {
+				return handleDeadlineExceededException(ex, request);
+			} else if (ex instanceof VersionConflictException) {
+				return handleVersionConflictException((VersionConflictException) ex, request);
+			} else if (ex instanceof OptimisticLockingFailureException) {
+				return handleOptimisticLockingFailureException((OptimisticLockingFailureException) ex, request);
+			} else if (ex instanceof TransientDataAccessException) {
+				return handleTransientDataAccessException((TransientDataAccessException) ex, request);
+			}
+			return super.handleException(ex, request);			
+		} catch (Exception e) {
+			return handleUncaught((Exception) ex, request);
+		}
+	}
+
+	@ExceptionHandler(DataIntegrityViolationException.class)
+	public ResponseEntity<Object> handleDataIntegrityViolationException(DataIntegrityViolationException ex, WebRequest request) {
+		
+		var status = HttpStatus.NOT_ACCEPTABLE;
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.DATA_INTEGRITY_VIOLATION,
+				getRootCauseMessage(ex), request);
+
+		return handleExceptionInternal(ex, error, new HttpHeaders(), status, request);
+	}
+
+	@ExceptionHandler(ConstraintViolationException.class)
+	public ResponseEntity<Object> handleConstraintViolationException(ConstraintViolationException ex, WebRequest request) {
+		
+		var status = HttpStatus.NOT_ACCEPTABLE;
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.CONSTRAINT_VIOLATION,
+				getRootCauseMessage(ex), request);
+
+		if (!CollectionUtils.isEmpty(ex.getConstraintViolations())) {
+			error.properties(criarListaErros(ex.getConstraintViolations()));
+		}
+
+		return handleExceptionInternal(ex, error, new HttpHeaders(), status, request);
+	}
+
+	@Override
+	protected ResponseEntity<Object> handleHttpMediaTypeNotAcceptable(HttpMediaTypeNotAcceptableException ex,
+			HttpHeaders headers, HttpStatus status, WebRequest request) {
+
+		List<MediaType> supportedMediaTypes = new ArrayList<>(ex.getSupportedMediaTypes());
+		if (!supportedMediaTypes.contains(ProblemDetailCodec.APPLICATION_CBOR)) {
+			supportedMediaTypes.add(ProblemDetailCodec.APPLICATION_CBOR);
+		}
+
+		String userMessage = String.format("%s. Supports: %s",
+				ex.getMessage().isEmpty() ? "Not acceptable Media Type" : ex.getMessage(),
+				supportedMediaTypes.stream().map(mt -> mt.toString()).collect(Collectors.joining(", ")));
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.HTTP_MEDIA_TYPE_NOT_ACCEPTABLE, userMessage, request);
+
+		return handleExceptionInternal(ex, error, headers, status, request);
+	}
+
+	@Override
+	protected ResponseEntity<Object> handleHttpRequestMethodNotSupported(HttpRequestMethodNotSupportedException ex,
+			HttpHeaders headers, HttpStatus status, WebRequest request) {
+
+		Set<HttpMethod> supportedMethods = ex.getSupportedHttpMethods();
+		if (!CollectionUtils.isEmpty(supportedMethods)) {
+			headers.setAllow(supportedMethods);
+		}
+
+		String userMessage = String.format("%s. Supports: %s", getRootCauseMessage(ex),
+				headers.getAllow().stream().map(hm -> hm.name()).collect(Collectors.joining(", ")));
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.HTTP_REQUEST_METHOD_NOT_SUPPORTED,
+				userMessage, request);
+
+		return handleExceptionInternal(ex, error, headers, status, request);
+	}
+
+	/**
+	 * Crie um {@code ProblemDetail} básico (com as propriedades comuns) O
+	 * proposito é permitir após retornar o ErrorDetailsBuilder adicionar se
+	 * necessário mais alguma propriedade antes de chamar o build.
+	 * 
+	 * @param status      um objeto {@code HttpStatus}
+	 * @param problemType Enum que contém a URI e title
+	 * @param detail      detalhamento do problema (error)
+	 * @return {@code ProblemDetail}
+	 */
+	public ProblemDetail createProblemDetail(HttpStatus status, ProblemType problemType, String detail, WebRequest request) {
+		beginHandling();
+		return ProblemDetail.builder(problemType.getUri(), status)
+				.title(status.getReasonPhrase())
+				.title(problemType.getTitle())
+				.detail(getProblemDetailLimits().truncateDetail(detail))
+				.instance(getURI(request))
+				.timestamp(OffsetDateTime.now());
+	}
+
+	@Override
+	protected ResponseEntity<Object> handleNoHandlerFoundException(NoHandlerFoundException ex, HttpHeaders headers,
+			HttpStatus status, WebRequest request) {
+
+		NegativeRouteCache negativeRouteCache = isSynthetic() ? null : getNegativeRouteCache();
+		if (negativeRouteCache == null) {
+			String message = String.format("Resource %s not found", ex.getRequestURL());
+			ProblemDetail error = createProblemDetail(status, ProblemType.NOT_FOUND, message, request);
+			return handleExceptionInternal(ex, error, headers, status, request);
+		}
+
+		// o corpo em cache depende só do path: instance e detail vêm do lookup path
+		String path = NegativeRouteCache.lookupPath(((ServletWebRequest) request).getRequest());
+		String message = getProblemDetailLimits().truncateDetail(String.format("Resource %s not found", path));
+		ProblemDetail error = createProblemDetail(status, ProblemType.NOT_FOUND, message, request)
+				.instance(UriComponentsBuilder.fromPath(path).encode().build().toUri());
+
+		ResponseEntity<Object> response = handleExceptionInternal(ex, error, headers, status, request);
+		// trace-id nas propriedades ou detail localizado: o corpo é desta requisição
+		if (error.getProperties() == null && message.equals(error.getDetail()) && response.getBody() != null) {
+			negativeRouteCache.learn(ex.getHttpMethod(), path, response.getHeaders().getContentType(),
+					response.getBody());
+		}
+		return response;
+	}
+
+	@ExceptionHandler(Exception.class)
+	public ResponseEntity<Object> handleUncaught(Exception ex, WebRequest request) {
+		HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+
+		String message = "Ocorreu um erro interno inesperado no sistema";
+		ProblemDetail error = createProblemDetail(status, ProblemType.INTERNAL_SERVER_ERROR, message, request);
+
+		return handleExceptionInternal(ex, error, new HttpHeaders(), status, request);
+	}
+
+	/**
+	 * Requisição rejeitada pelo {@code ConcurrencyLimitFilter}: responde com o
+	 * status configurado no filtro e o header {@code Retry-After}.
+	 */
+	@ExceptionHandler(ConcurrencyLimitExceededException.class)
+	public ResponseEntity<Object> handleConcurrencyLimitExceededException(ConcurrencyLimitExceededException ex, WebRequest request) {
+
+		var status = ex.getStatus();
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.CONCURRENCY_LIMIT_EXCEEDED,
+				ex.getMessage(), request);
+
+		return handleExceptionInternal(ex, error, headers, status, request);
+	}
+
+	/**
+	 * Circuit breaker de acesso a dados aberto: responde 503 com o header
+	 * {@code Retry-After}, sem esperar pelo banco de dados.
+	 */
+	@ExceptionHandler(DatabaseUnavailableException.class)
+	public ResponseEntity<Object> handleDatabaseUnavailableException(DatabaseUnavailableException ex, WebRequest request) {
+
+		var status = HttpStatus.SERVICE_UNAVAILABLE;
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.DATABASE_UNAVAILABLE,
+				ex.getMessage(), request);
+
+		return handleExceptionInternal(ex, error, headers, status, request);
+	}
+
+	/**
+	 * {@code Idempotency-Key} reutilizada com outro payload (422), cuja
+	 * primeira requisição ainda está em andamento (409) ou com corpo acima do
+	 * limite (413).
+	 */
+	@ExceptionHandler(IdempotencyKeyConflictException.class)
+	public ResponseEntity<Object> handleIdempotencyKeyConflictException(IdempotencyKeyConflictException ex, WebRequest request) {
+
+		var status = ex.getStatus();
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.IDEMPOTENCY_KEY_CONFLICT,
+				ex.getMessage(), request);
+
+		return handleExceptionInternal(ex, error, new HttpHeaders(), status, request);
+	}
+
+	/**
+	 * Falha transitória (deadlock, espera por lock) que persistiu após as
+	 * novas tentativas: responde 503 com o header {@code Retry-After}.
+	 */
+	@ExceptionHandler(DataAccessContentionException.class)
+	public ResponseEntity<Object> handleDataAccessContentionException(DataAccessContentionException ex, WebRequest request) {
+
+		var status = HttpStatus.SERVICE_UNAVAILABLE;
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.DATA_ACCESS_CONTENTION,
+				ex.getMessage(), request);
+
+		return handleExceptionInternal(ex, error, headers, status, request);
+	}
+
+	/**
+	 * Falha transitória (CannotAcquireLockException, deadlock...) sem o
+	 * {@code TransientDataAccessRetryInterceptor}: responde 503 com o
+	 * {@code Retry-After} de {@link #getContentionRetryAfterSeconds()}. Os
+	 * timeouts e o lock otimista têm os próprios handlers.
+	 */
+	@ExceptionHandler(TransientDataAccessException.class)
+	public ResponseEntity<Object> handleTransientDataAccessException(TransientDataAccessException ex,
+			WebRequest request) {
+
+		var status = HttpStatus.SERVICE_UNAVAILABLE;
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(getContentionRetryAfterSeconds()));
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.DATA_ACCESS_CONTENTION,
+				"Data access failed due to contention", request);
+
+		return handleExceptionInternal(ex, error, headers, status, request);
+	}
+
+	/**
+	 * Retry-After das falhas transitórias que não passaram pelas novas
+	 * tentativas. Sobrescrever para alterar.
+	 * 
+	 * @return 1 segundo
+	 */
+	protected long getContentionRetryAfterSeconds() {
+		return 1;
+	}
+
+	/**
+	 * Consulta ou transação interrompida pelo timeout, inclusive o aplicado a
+	 * partir do prazo da requisição, ou chamada recusada com o prazo já
+	 * vencido: responde 504, sem expor o SQL.
+	 */
+	@ExceptionHandler({ QueryTimeoutException.class, TransactionTimedOutException.class,
+			RequestDeadlineExceededException.class })
+	public ResponseEntity<Object> handleDeadlineExceededException(Exception ex, WebRequest request) {
+
+		var status = HttpStatus.GATEWAY_TIMEOUT;
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.DEADLINE_EXCEEDED,
+				"The request deadline was exceeded", request);
+
+		return handleExceptionInternal(ex, error, new HttpHeaders(), status, request);
+	}
+
+	/**
+	 * Atualização concorrente de uma entidade {@code @Version}: responde 409
+	 * com o identificador e a versão atual, para que o cliente refaça a
+	 * alteração condicionalmente, sem um novo GET. A versão vai também no
+	 * {@code ETag} quando numérica; versões Timestamp têm espaço, inválido em
+	 * um ETag, e ficam só nas propriedades.
+	 */
+	@ExceptionHandler(VersionConflictException.class)
+	public ResponseEntity<Object> handleVersionConflictException(VersionConflictException ex, WebRequest request) {
+
+		var status = HttpStatus.CONFLICT;
+		HttpHeaders headers = new HttpHeaders();
+		PropertiesBuilder properties = new PropertiesBuilder(getProblemDetailLimits());
+		if (ex.getEntity() != null) {
+			properties.add("entity", ex.getEntity());
+		}
+		if (ex.getId() != null) {
+			properties.add("id", String.valueOf(ex.getId()));
+		}
+		Object version = ex.getCurrentVersion();
+		if (version != null) {
+			properties.add("version", String.valueOf(version));
+			if (version instanceof Number) {
+				headers.setETag("\"" + version + "\"");
+			}
+		}
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.VERSION_CONFLICT,
+				ex.getMessage(), request);
+		error.properties(properties.build());
+
+		return handleExceptionInternal(ex, error, headers, status, request);
+	}
+
+	/**
+	 * Falha de lock otimista sem o {@code VersionConflictInterceptor}: 409,
+	 * sem a versão atual.
+	 */
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<Object> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex,
+			WebRequest request) {
+
+		var status = HttpStatus.CONFLICT;
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.VERSION_CONFLICT,
+				"The resource was updated or deleted by another transaction", request);
+
+		return handleExceptionInternal(ex, error, new HttpHeaders(), status, request);
+	}
+
+	@ExceptionHandler(EntityNotFoundException.class)
+	public ResponseEntity<Object> handleEntityNotFoundException(EntityNotFoundException ex, WebRequest request) {
+
+		var status = HttpStatus.BAD_REQUEST;
+		ProblemDetail error = createProblemDetail(status, ProblemType.NO_SUCH_ELEMENT,
+				ex.getMessage(), request);
+
+		return handleExceptionInternal(ex, error, new HttpHeaders(), status, request);
+	}
+	
+	@Override
+	protected ResponseEntity<Object> handleHttpMediaTypeNotSupported(HttpMediaTypeNotSupportedException ex,
+			HttpHeaders headers, HttpStatus status, WebRequest request) {
+		
+		List<MediaType> mediaTypes = ex.getSupportedMediaTypes();
+		if (!CollectionUtils.isEmpty(mediaTypes)) {
+			headers.setAccept(mediaTypes);
+			if (request instanceof ServletWebRequest) {
+				ServletWebRequest servletWebRequest = (ServletWebRequest) request;
+				if (HttpMethod.PATCH.equals(servletWebRequest.getHttpMethod())) {
+					headers.setAcceptPatch(mediaTypes);
+				}
+			}
+		}
+
+		ProblemDetail error = createProblemDetail(status, ProblemType.NOT_ACCEPTABLE_MEDIA_TYPE,
+				ex.getMessage(), request);
+	
+		return handleExceptionInternal(ex, error, headers, status, request);
+	}
+}
@@ -0,0 +1,38 @@
+package com.dms.useful.exception.handler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR do percurso da cadeia de causas, feito para o detail do
+ * {@code ProblemDetail}. Desabilitado por padrão, como o
+ * {@link ExceptionHandlingEvent}.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+@Name(RootCauseResolutionEvent.NAME)
+@Label("Root Cause Resolution")
+@Category({ "DMS", "Error Handling" })
+@Description("Root cause of the exception resolved for the ProblemDetail detail")
+@Enabled(false)
+@StackTrace(false)
+class RootCauseResolutionEvent extends Event {
+
+	static final String NAME = "com.dms.useful.RootCauseResolution";
+
+	@Label("Exception Class")
+	Class<?> exceptionClass;
+
+	@Label("Root Cause Class")
+	Class<?> rootCauseClass;
+
+	@Label("Depth")
+	@Description("Number of causes walked")
+	int depth;
+}
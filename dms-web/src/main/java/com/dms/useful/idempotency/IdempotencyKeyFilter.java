@@ -0,0 +1,352 @@
+package com.dms.useful.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import com.dms.useful.exception.IdempotencyKeyConflictException;
+import com.dms.useful.idempotency.IdempotencyStore.Entry;
+import com.dms.useful.idempotency.IdempotencyStore.IdempotentResponse;
+
+/**
+ * Servlet filter that makes POST requests with an {@code Idempotency-Key}
+ * header safe to retry.
+ * 
+ * <pre>
+ * - first request: runs the controller; a 2xx response has its status and
+ *   Location header (set by the ResourceCreatedListener) recorded;
+ * - replay with the same body: gets the recorded status and Location
+ *   without running the controller;
+ * - concurrent duplicate: waits for the first execution;
+ * - same key with another body: 422 ProblemDetail, rendered by the
+ *   ResourcesExceptionHandler through the HandlerExceptionResolver;
+ * - body larger than the limit (1 MB by default): 413, since the body is
+ *   buffered to be hashed;
+ * - store full of requests in progress: 503.
+ * 
+ * Async requests (Callable, DeferredResult, CompletableFuture) are recorded
+ * when the async processing completes, with the final status and Location.
+ * 
+ * Keys are scoped by the authenticated principal, so two clients sending
+ * the same key do not see each other's responses; applications that
+ * identify the client otherwise (tenant, API key) set a key scope.
+ * 
+ * Ex.:
+ * &#64;Bean
+ * public FilterRegistrationBean&lt;IdempotencyKeyFilter&gt; idempotencyKeyFilter(
+ *         &#64;Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver) {
+ *     return new FilterRegistrationBean&lt;&gt;(new IdempotencyKeyFilter(new IdempotencyStore(), resolver));
+ * }
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+	public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+	private final IdempotencyStore store;
+	private final HandlerExceptionResolver resolver;
+	private final long waitNanos;
+	private Function<HttpServletRequest, String> keyScope = IdempotencyKeyFilter::principalName;
+	private int maxBodySize = 1024 * 1024;
+
+	/**
+	 * Duplicates wait up to 30 seconds for the first execution.
+	 */
+	public IdempotencyKeyFilter(IdempotencyStore store, HandlerExceptionResolver resolver) {
+		this(store, resolver, Duration.ofSeconds(30));
+	}
+
+	/**
+	 * @param store    keys and recorded responses
+	 * @param resolver renders the conflicts
+	 * @param wait     how long a duplicate waits for the first execution
+	 */
+	public IdempotencyKeyFilter(IdempotencyStore store, HandlerExceptionResolver resolver, Duration wait) {
+		Assert.notNull(store, "IdempotencyStore is required");
+		Assert.notNull(resolver, "HandlerExceptionResolver is required");
+		Assert.notNull(wait, "Wait is required");
+		this.store = store;
+		this.resolver = resolver;
+		this.waitNanos = wait.toNanos();
+	}
+
+	/**
+	 * @param keyScope identifies the client of the request (principal name by
+	 *                 default); {@code null} or empty means anonymous
+	 */
+	public void setKeyScope(Function<HttpServletRequest, String> keyScope) {
+		Assert.notNull(keyScope, "KeyScope is required");
+		this.keyScope = keyScope;
+	}
+
+	/**
+	 * @param maxBodySize largest body, in bytes, buffered to be hashed; larger
+	 *                    ones are rejected with 413
+	 */
+	public void setMaxBodySize(int maxBodySize) {
+		Assert.isTrue(maxBodySize >= 0, "MaxBodySize must not be negative");
+		this.maxBodySize = maxBodySize;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !"POST".equals(request.getMethod()) || !StringUtils.hasText(request.getHeader(IDEMPOTENCY_KEY));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		byte[] body = readBody(request);
+		if (body == null) {
+			reject(request, response, new IdempotencyKeyConflictException(
+					"Request body larger than " + this.maxBodySize + " bytes", HttpStatus.PAYLOAD_TOO_LARGE));
+			return;
+		}
+		String scope = this.keyScope.apply(request);
+		String key = (scope != null ? scope : "") + ' ' + request.getRequestURI() + ' '
+				+ request.getHeader(IDEMPOTENCY_KEY);
+		byte[] bodyHash = hash(body);
+		long deadline = System.nanoTime() + this.waitNanos;
+
+		for (;;) {
+			Entry entry;
+			try {
+				entry = this.store.begin(key, bodyHash);
+			} catch (IdempotencyKeyConflictException ex) {
+				reject(request, response, ex);
+				return;
+			}
+			if (entry == null) {
+				execute(key, new CachedBodyRequest(request, body), response, filterChain);
+				return;
+			}
+			if (!Arrays.equals(entry.getBodyHash(), bodyHash)) {
+				reject(request, response, new IdempotencyKeyConflictException(
+						"Idempotency-Key already used with a different payload", HttpStatus.UNPROCESSABLE_ENTITY));
+				return;
+			}
+			IdempotentResponse recorded = await(entry, deadline);
+			if (recorded != null) {
+				response.setStatus(recorded.getStatus());
+				if (recorded.getLocation() != null) {
+					response.setHeader(HttpHeaders.LOCATION, recorded.getLocation());
+				}
+				return;
+			}
+			if (System.nanoTime() - deadline >= 0 || !entry.getResponse().isDone()) {
+				reject(request, response, new IdempotencyKeyConflictException(
+						"A request with this Idempotency-Key is still in progress", HttpStatus.CONFLICT));
+				return;
+			}
+			// the first execution failed: try to execute it now
+		}
+	}
+
+	/**
+	 * @return the body, or {@code null} if it is larger than the limit
+	 */
+	private byte[] readBody(HttpServletRequest request) throws IOException {
+		long length = request.getContentLengthLong();
+		if (length > this.maxBodySize) {
+			return null;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 ? (int) length : 256);
+		InputStream in = request.getInputStream();
+		byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+		for (int read; (read = in.read(buffer)) != -1;) {
+			if (out.size() + read > this.maxBodySize) {
+				return null;
+			}
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private static String principalName(HttpServletRequest request) {
+		Principal principal = request.getUserPrincipal();
+		return principal != null ? principal.getName() : null;
+	}
+
+	private void execute(String key, HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		boolean handled = false;
+		try {
+			filterChain.doFilter(request, response);
+			if (request.isAsyncStarted()) {
+				// a resposta final só existe quando o processamento assíncrono termina
+				request.getAsyncContext().addListener(new AsyncListener() {
+					@Override
+					public void onComplete(AsyncEvent event) {
+						record(key, response);
+					}
+
+					@Override
+					public void onTimeout(AsyncEvent event) {
+					}
+
+					@Override
+					public void onError(AsyncEvent event) {
+					}
+
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+						event.getAsyncContext().addListener(this);
+					}
+				});
+			} else {
+				record(key, response);
+			}
+			handled = true;
+		} finally {
+			if (!handled) {
+				this.store.abort(key);
+			}
+		}
+	}
+
+	/**
+	 * Completes the key with a 2xx response, or aborts it.
+	 */
+	private void record(String key, HttpServletResponse response) {
+		int status = response.getStatus();
+		if (status >= 200 && status < 300) {
+			this.store.complete(key, new IdempotentResponse(status, response.getHeader(HttpHeaders.LOCATION)));
+		} else {
+			this.store.abort(key);
+		}
+	}
+
+	private IdempotentResponse await(Entry entry, long deadline) throws ServletException {
+		try {
+			return entry.getResponse().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServletException(e);
+		} catch (ExecutionException e) {
+			throw new ServletException(e.getCause());
+		}
+	}
+
+	private void reject(HttpServletRequest request, HttpServletResponse response, IdempotencyKeyConflictException ex)
+			throws IOException {
+		if (this.resolver.resolveException(request, response, null, ex) == null) {
+			response.sendError(ex.getStatus().value(), ex.getMessage());
+		}
+	}
+
+	private static byte[] hash(byte[] body) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(body);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Request whose body, already read to be hashed, can be read again by the
+	 * controller.
+	 */
+	private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+		private final byte[] body;
+
+		private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+			super(request);
+			this.body = body;
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			ByteArrayInputStream in = new ByteArrayInputStream(this.body);
+			return new ServletInputStream() {
+				@Override
+				public int read() {
+					return in.read();
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) {
+					return in.read(b, off, len);
+				}
+
+				@Override
+				public boolean isFinished() {
+					return in.available() == 0;
+				}
+
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				@Override
+				public void setReadListener(ReadListener readListener) {
+					// o corpo já está em memória: tudo está disponível de imediato
+					try {
+						if (!isFinished()) {
+							readListener.onDataAvailable();
+						}
+						readListener.onAllDataRead();
+					} catch (IOException e) {
+						readListener.onError(e);
+					}
+				}
+			};
+		}
+
+		@Override
+		public BufferedReader getReader() {
+			String encoding = getCharacterEncoding();
+			Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+			return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+		}
+
+		@Override
+		public int getContentLength() {
+			return this.body.length;
+		}
+
+		@Override
+		public long getContentLengthLong() {
+			return this.body.length;
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package com.dms.useful.idempotency;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+
+import com.dms.useful.exception.IdempotencyKeyConflictException;
+
+/**
+ * {@code IdempotencyStore} keeps, for each {@code Idempotency-Key}, the hash
+ * of the request body and the response of its first execution.
+ * 
+ * <pre>
+ * The store is bounded and lock-striped: the key hash selects one of the
+ * stripes, each one a LinkedHashMap guarded by its own lock. Entries
+ * expire after the TTL, counted from their registration, so the insertion
+ * order is also the expiration order: the eldest completed entry of a full
+ * stripe is the first to go. Entries still in progress are never evicted:
+ * a stripe full of them rejects new keys with 503.
+ * 
+ * The response is a CompletableFuture, so concurrent duplicates wait for the
+ * first execution instead of running the controller again.
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class IdempotencyStore {
+
+	/**
+	 * Response of the first execution of a key.
+	 */
+	public static final class IdempotentResponse {
+		private final int status;
+		private final String location;
+
+		public IdempotentResponse(int status, String location) {
+			this.status = status;
+			this.location = location;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public String getLocation() {
+			return location;
+		}
+	}
+
+	/**
+	 * A key being executed or already executed.
+	 */
+	public static final class Entry {
+		private final byte[] bodyHash;
+		private final CompletableFuture<IdempotentResponse> response = new CompletableFuture<>();
+		private final long expiresAt;
+
+		private Entry(byte[] bodyHash, long expiresAt) {
+			this.bodyHash = bodyHash;
+			this.expiresAt = expiresAt;
+		}
+
+		public byte[] getBodyHash() {
+			return bodyHash;
+		}
+
+		/**
+		 * @return completed with the response, or with {@code null} if the first
+		 *         execution failed and the key may be executed again
+		 */
+		public CompletableFuture<IdempotentResponse> getResponse() {
+			return response;
+		}
+	}
+
+	private final Stripe[] stripes;
+	private final long ttlNanos;
+	private final LongSupplier nanoTime;
+
+	/**
+	 * 10000 keys in 16 stripes, kept for 24 hours.
+	 */
+	public IdempotencyStore() {
+		this(10_000, 16, Duration.ofHours(24));
+	}
+
+	/**
+	 * @param maxEntries maximum number of keys
+	 * @param stripes    number of independently locked partitions
+	 * @param ttl        how long a key is remembered
+	 */
+	public IdempotencyStore(int maxEntries, int stripes, Duration ttl) {
+		this(maxEntries, stripes, ttl, System::nanoTime);
+	}
+
+	IdempotencyStore(int maxEntries, int stripes, Duration ttl, LongSupplier nanoTime) {
+		Assert.isTrue(stripes > 0, "Stripes must be greater than zero");
+		Assert.isTrue(maxEntries >= stripes, "MaxEntries must be at least the number of stripes");
+		Assert.notNull(ttl, "TTL is required");
+		this.stripes = new Stripe[stripes];
+		for (int i = 0; i < stripes; i++) {
+			this.stripes[i] = new Stripe(maxEntries / stripes);
+		}
+		this.ttlNanos = ttl.toNanos();
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * Registers the key, unless it is already known.
+	 * 
+	 * @param key      the {@code Idempotency-Key} (scoped by the caller)
+	 * @param bodyHash hash of the request body
+	 * @return {@code null} if the key is new and the caller must execute the
+	 *         request and then {@link #complete} or {@link #abort} it;
+	 *         otherwise the existing entry
+	 * @throws IdempotencyKeyConflictException (503) if the stripe of the key
+	 *                                         is full of requests in progress
+	 */
+	public Entry begin(String key, byte[] bodyHash) {
+		Stripe stripe = stripe(key);
+		long now = this.nanoTime.getAsLong();
+		stripe.lock.lock();
+		try {
+			Entry entry = stripe.entries.get(key);
+			if (entry != null) {
+				if (now - entry.expiresAt < 0 || !entry.response.isDone()) {
+					return entry;
+				}
+				// remove antes do put: a nova entrada vai para o fim da ordem de inserção
+				stripe.entries.remove(key);
+			}
+			stripe.evictExpired(now);
+			if (stripe.entries.size() >= stripe.maxEntries && !stripe.evictEldestCompleted()) {
+				throw new IdempotencyKeyConflictException("Too many requests with Idempotency-Key in progress",
+						HttpStatus.SERVICE_UNAVAILABLE);
+			}
+			stripe.entries.put(key, new Entry(bodyHash, now + this.ttlNanos));
+			return null;
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Records the response of the first execution and releases the waiting
+	 * duplicates.
+	 */
+	public void complete(String key, IdempotentResponse response) {
+		Entry entry = get(key);
+		if (entry != null) {
+			entry.response.complete(response);
+		}
+	}
+
+	/**
+	 * Forgets the key, so it may be executed again, and releases the waiting
+	 * duplicates.
+	 */
+	public void abort(String key) {
+		Stripe stripe = stripe(key);
+		Entry entry;
+		stripe.lock.lock();
+		try {
+			entry = stripe.entries.remove(key);
+		} finally {
+			stripe.lock.unlock();
+		}
+		if (entry != null) {
+			entry.response.complete(null);
+		}
+	}
+
+	int size() {
+		int size = 0;
+		for (Stripe stripe : this.stripes) {
+			stripe.lock.lock();
+			try {
+				size += stripe.entries.size();
+			} finally {
+				stripe.lock.unlock();
+			}
+		}
+		return size;
+	}
+
+	private Entry get(String key) {
+		Stripe stripe = stripe(key);
+		stripe.lock.lock();
+		try {
+			return stripe.entries.get(key);
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	private Stripe stripe(String key) {
+		int hash = key.hashCode();
+		return this.stripes[Math.floorMod(hash ^ (hash >>> 16), this.stripes.length)];
+	}
+
+	private static final class Stripe {
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Map<String, Entry> entries = new LinkedHashMap<>();
+		private final int maxEntries;
+
+		private Stripe(int maxEntries) {
+			this.maxEntries = maxEntries;
+		}
+
+		private void evictExpired(long now) {
+			// insertion order: the entries that expire first come first
+			for (Iterator<Entry> iterator = this.entries.values().iterator(); iterator.hasNext();) {
+				Entry entry = iterator.next();
+				if (now - entry.expiresAt < 0) {
+					return;
+				}
+				if (entry.response.isDone()) {
+					iterator.remove();
+				}
+			}
+		}
+
+		/**
+		 * @return {@code false} if every entry is still in progress
+		 */
+		private boolean evictEldestCompleted() {
+			for (Iterator<Entry> iterator = this.entries.values().iterator(); iterator.hasNext();) {
+				if (iterator.next().response.isDone()) {
+					iterator.remove();
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
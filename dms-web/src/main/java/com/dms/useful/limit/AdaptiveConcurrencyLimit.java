@@ -0,0 +1,133 @@
+package com.dms.useful.limit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@code AdaptiveConcurrencyLimit} limits the number of requests in flight
+ * with AIMD (additive increase, multiplicative decrease) on the observed
+ * latency.
+ * 
+ * <pre>
+ * - a request faster than the latency threshold adds 1/limit to the limit
+ *   (about +1 per "round" of requests);
+ * - a slower one multiplies the limit by the backoff ratio.
+ * 
+ * The accounting is lock-free: in flight is an AtomicInteger acquired by
+ * CAS, and the limit and the mean latency (EWMA) are AtomicLong updated by
+ * CAS.
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class AdaptiveConcurrencyLimit {
+
+	private static final double BACKOFF_RATIO = 0.9;
+	private static final double EWMA_WEIGHT = 0.1;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final long latencyThresholdNanos;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong limit;
+	private final AtomicLong meanLatencyNanos = new AtomicLong();
+
+	/**
+	 * Limit between 10 and 1000 requests, starting at 100, with a latency
+	 * threshold of one second.
+	 */
+	public AdaptiveConcurrencyLimit() {
+		this(100, 10, 1000, Duration.ofSeconds(1));
+	}
+
+	/**
+	 * @param initialLimit     limit at startup
+	 * @param minLimit         the limit never goes below it
+	 * @param maxLimit         the limit never goes above it
+	 * @param latencyThreshold requests slower than it decrease the limit
+	 */
+	public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+		Assert.isTrue(minLimit > 0, "MinLimit must be greater than zero");
+		Assert.isTrue(minLimit <= initialLimit && initialLimit <= maxLimit,
+				"InitialLimit must be between minLimit and maxLimit");
+		Assert.notNull(latencyThreshold, "LatencyThreshold is required");
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.latencyThresholdNanos = latencyThreshold.toNanos();
+		this.limit = new AtomicLong(Double.doubleToLongBits(initialLimit));
+	}
+
+	/**
+	 * Acquires a slot for a request.
+	 * 
+	 * @return {@code true} if the request may proceed; it must then call
+	 *         {@link #release(long)}
+	 */
+	public boolean tryAcquire() {
+		int limit = getLimit();
+		for (;;) {
+			int current = this.inFlight.get();
+			if (current >= limit) {
+				return false;
+			}
+			if (this.inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Releases the slot and adapts the limit to the request latency.
+	 * 
+	 * @param latencyNanos how long the request took
+	 */
+	public void release(long latencyNanos) {
+		this.inFlight.decrementAndGet();
+		updateMeanLatency(latencyNanos);
+
+		boolean overloaded = latencyNanos > this.latencyThresholdNanos;
+		for (;;) {
+			long bits = this.limit.get();
+			double current = Double.longBitsToDouble(bits);
+			double next = overloaded ? current * BACKOFF_RATIO : current + 1.0 / current;
+			next = Math.max(this.minLimit, Math.min(this.maxLimit, next));
+			if (next == current || this.limit.compareAndSet(bits, Double.doubleToLongBits(next))) {
+				return;
+			}
+		}
+	}
+
+	private void updateMeanLatency(long latencyNanos) {
+		for (;;) {
+			long current = this.meanLatencyNanos.get();
+			long next = current == 0 ? latencyNanos : (long) (current + EWMA_WEIGHT * (latencyNanos - current));
+			if (this.meanLatencyNanos.compareAndSet(current, next)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Time for the requests in flight to drain, at the mean latency.
+	 * 
+	 * @return seconds for the {@code Retry-After} header, at least 1
+	 */
+	public long getRetryAfterSeconds() {
+		double rounds = (double) this.inFlight.get() / getLimit();
+		double seconds = this.meanLatencyNanos.get() * Math.max(rounds, 1.0) / 1_000_000_000d;
+		return Math.max(1L, (long) Math.ceil(seconds));
+	}
+
+	public int getLimit() {
+		return (int) Double.longBitsToDouble(this.limit.get());
+	}
+
+	public int getInFlight() {
+		return this.inFlight.get();
+	}
+}
@@ -0,0 +1,118 @@
+package com.dms.useful.limit;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import com.dms.useful.exception.ConcurrencyLimitExceededException;
+
+/**
+ * Servlet filter that sheds load with an {@link AdaptiveConcurrencyLimit}.
+ * 
+ * <pre>
+ * A request over the limit is rejected immediately with a
+ * ConcurrencyLimitExceededException, resolved by the HandlerExceptionResolver
+ * of the application, so the ResourcesExceptionHandler renders the same
+ * ProblemDetail (with Retry-After) of any other error.
+ * 
+ * An asynchronous request (Callable, DeferredResult...) holds its slot until
+ * the asynchronous processing completes, and its latency is measured up to
+ * then, not up to the release of the container thread.
+ * 
+ * Ex.:
+ * &#64;Bean
+ * public FilterRegistrationBean&lt;ConcurrencyLimitFilter&gt; concurrencyLimitFilter(
+ *         &#64;Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver) {
+ *     return new FilterRegistrationBean&lt;&gt;(new ConcurrencyLimitFilter(new AdaptiveConcurrencyLimit(), resolver));
+ * }
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+	private final AdaptiveConcurrencyLimit limit;
+	private final HandlerExceptionResolver resolver;
+	private final HttpStatus rejectionStatus;
+
+	/**
+	 * Rejects with {@code 503 Service Unavailable}.
+	 */
+	public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit limit, HandlerExceptionResolver resolver) {
+		this(limit, resolver, HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	/**
+	 * @param limit           the adaptive limit
+	 * @param resolver        renders the rejection
+	 * @param rejectionStatus {@code 503} or {@code 429}
+	 */
+	public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit limit, HandlerExceptionResolver resolver,
+			HttpStatus rejectionStatus) {
+		Assert.notNull(limit, "AdaptiveConcurrencyLimit is required");
+		Assert.notNull(resolver, "HandlerExceptionResolver is required");
+		Assert.notNull(rejectionStatus, "RejectionStatus is required");
+		this.limit = limit;
+		this.resolver = resolver;
+		this.rejectionStatus = rejectionStatus;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		if (!this.limit.tryAcquire()) {
+			ConcurrencyLimitExceededException ex = new ConcurrencyLimitExceededException(this.limit.getLimit(),
+					this.rejectionStatus, this.limit.getRetryAfterSeconds());
+			if (this.resolver.resolveException(request, response, null, ex) == null) {
+				response.setHeader("Retry-After", String.valueOf(ex.getRetryAfterSeconds()));
+				response.sendError(this.rejectionStatus.value());
+			}
+			return;
+		}
+
+		long start = System.nanoTime();
+		boolean async = false;
+		try {
+			filterChain.doFilter(request, response);
+			if (request.isAsyncStarted()) {
+				// a requisição só termina quando o processamento assíncrono termina
+				request.getAsyncContext().addListener(new AsyncListener() {
+					@Override
+					public void onComplete(AsyncEvent event) {
+						limit.release(System.nanoTime() - start);
+					}
+
+					@Override
+					public void onTimeout(AsyncEvent event) {
+					}
+
+					@Override
+					public void onError(AsyncEvent event) {
+					}
+
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+						event.getAsyncContext().addListener(this);
+					}
+				});
+				async = true;
+			}
+		} finally {
+			if (!async) {
+				this.limit.release(System.nanoTime() - start);
+			}
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.dms.useful.reference;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.dms.useful.UFBrasil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@code UFBrasilReferenceController} serve os {@link UFBrasil} agrupados
+ * por {@link UFBrasil.Regions}, renderizados uma vez na inicialização.
+ * 
+ * <pre>
+ * GET /ufs (ou ${dms.reference.ufs-path})
+ * {"NORTE":[{"sigla":"AC","estado":"Acre","capital":"Rio Branco"},...],...}
+ * 
+ * - os bytes em JSON e gzip são imutáveis, sem serialização por requisição;
+ * - ETag forte (um por codificação), Cache-Control immutable e 304 para
+ *   If-None-Match;
+ * - gzip quando o cliente aceita (Vary: Accept-Encoding).
+ * 
+ * Opcional, registrado como bean:
+ * &#64;Bean
+ * public UFBrasilReferenceController ufBrasilReferenceController(ObjectMapper objectMapper) {
+ *     return new UFBrasilReferenceController(objectMapper, Duration.ofDays(1));
+ * }
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+@RestController
+@RequestMapping("${dms.reference.ufs-path:/ufs}")
+public class UFBrasilReferenceController {
+
+	private static final String GZIP = "gzip";
+
+	private final byte[] json;
+	private final byte[] gzip;
+	private final String etag;
+	private final String gzipEtag;
+	private final String cacheControl;
+
+	/**
+	 * @param objectMapper renderiza o JSON, uma vez
+	 * @param maxAge       {@code max-age} do {@code Cache-Control}
+	 */
+	public UFBrasilReferenceController(ObjectMapper objectMapper, Duration maxAge) {
+		Assert.notNull(objectMapper, "ObjectMapper is required");
+		Assert.isTrue(maxAge != null && !maxAge.isNegative(), "MaxAge must not be negative");
+		try {
+			this.json = objectMapper.writeValueAsBytes(byRegion());
+			this.gzip = gzip(this.json);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		String hash = DigestUtils.md5DigestAsHex(this.json);
+		this.etag = "\"" + hash + "\"";
+		this.gzipEtag = "\"" + hash + "-gzip\"";
+		this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue() + ", immutable";
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<byte[]> ufs(
+			@Nullable @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@Nullable @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+		boolean gzipped = acceptsGzip(acceptEncoding);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setETag(gzipped ? this.gzipEtag : this.etag);
+		headers.setCacheControl(this.cacheControl);
+		headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+
+		if (matches(ifNoneMatch)) {
+			return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+		}
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		if (gzipped) {
+			headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+		}
+		byte[] body = gzipped ? this.gzip : this.json;
+		headers.setContentLength(body.length);
+		return new ResponseEntity<>(body, headers, HttpStatus.OK);
+	}
+
+	/**
+	 * If-None-Match usa comparação fraca: qualquer das codificações vale.
+	 */
+	private boolean matches(@Nullable String ifNoneMatch) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals("*") || tag.equals(this.etag) || tag.equals(this.gzipEtag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	static boolean acceptsGzip(@Nullable String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			int semicolon = coding.indexOf(';');
+			String name = (semicolon < 0 ? coding : coding.substring(0, semicolon)).trim();
+			if (name.equalsIgnoreCase(GZIP) || name.equals("*")) {
+				return semicolon < 0 || quality(coding.substring(semicolon + 1)) > 0;
+			}
+		}
+		return false;
+	}
+
+	private static double quality(String parameters) {
+		for (String parameter : parameters.split(";")) {
+			parameter = parameter.trim();
+			if (parameter.startsWith("q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2));
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	private static Map<String, List<Map<String, Object>>> byRegion() {
+		Map<String, List<Map<String, Object>>> regions = new LinkedHashMap<>();
+		for (UFBrasil.Regions region : UFBrasil.Regions.values()) {
+			regions.put(region.toString(), new ArrayList<>());
+		}
+		for (UFBrasil uf : UFBrasil.values()) {
+			Map<String, Object> item = new LinkedHashMap<>();
+			item.put("sigla", uf.name());
+			item.put("estado", uf.getEstado());
+			item.put("capital", uf.getCapital());
+			regions.get(uf.getRegiao()).add(item);
+		}
+		// LESTE e OESTE não têm Estados
+		regions.values().removeIf(List::isEmpty);
+		return regions;
+	}
+
+	private static byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length);
+		try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(content);
+		}
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,233 @@
+package com.dms.useful.route;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.dms.useful.exception.handler.ProblemDetail;
+import com.dms.useful.exception.handler.ProblemDetailCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@code NegativeRouteCache} remembers paths that have no handler, with the
+ * final 404 response already serialized, so the {@link NegativeRouteFilter}
+ * answers repeated hits (scanners) before the {@code DispatcherServlet}.
+ * 
+ * <pre>
+ * - learned by the ResourcesExceptionHandler from NoHandlerFoundException,
+ *   after handleExceptionInternal, one body per content type;
+ * - a problem+json body also answers Accept: application/json, with that
+ *   content type, as the message converters would;
+ * - keyed by method and the lookup path of the UrlPathHelper, the same path
+ *   the handler mappings match, so /a/ or /a;x=1 never answer for /a;
+ * - each path is forgotten after the TTL, and the cache is bounded;
+ * - cleared when the context is refreshed (new handler mappings), or by
+ *   invalidate().
+ * 
+ * Requires spring.mvc.throw-exception-if-no-handler-found=true.
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class NegativeRouteCache implements ApplicationListener<ContextRefreshedEvent> {
+
+	/**
+	 * A serialized 404 body and its content type.
+	 */
+	public static final class Response {
+		private final MediaType contentType;
+		private final byte[] body;
+
+		private Response(MediaType contentType, byte[] body) {
+			this.contentType = contentType;
+			this.body = body;
+		}
+
+		public MediaType getContentType() {
+			return contentType;
+		}
+
+		public byte[] getBody() {
+			return body;
+		}
+	}
+
+	private final ObjectMapper objectMapper;
+	private final long ttlNanos;
+	private final int maxEntries;
+	private final LongSupplier nanoTime;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * @param objectMapper serializes the 404 {@code ProblemDetail} left to the
+	 *                     message converters
+	 * @param ttl          how long an unknown path is remembered
+	 * @param maxEntries   maximum number of paths
+	 */
+	public NegativeRouteCache(ObjectMapper objectMapper, Duration ttl, int maxEntries) {
+		this(objectMapper, ttl, maxEntries, System::nanoTime);
+	}
+
+	NegativeRouteCache(ObjectMapper objectMapper, Duration ttl, int maxEntries, LongSupplier nanoTime) {
+		Assert.notNull(objectMapper, "ObjectMapper is required");
+		Assert.notNull(ttl, "TTL is required");
+		Assert.isTrue(maxEntries > 0, "MaxEntries must be greater than zero");
+		this.objectMapper = objectMapper;
+		this.ttlNanos = ttl.toNanos();
+		this.maxEntries = maxEntries;
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * The path the handler mappings match: within the servlet mapping,
+	 * decoded and without ;params.
+	 */
+	public static String lookupPath(HttpServletRequest request) {
+		return UrlPathHelper.defaultInstance.getLookupPathForRequest(request);
+	}
+
+	/**
+	 * Remembers a path without handler. The response must not depend on the
+	 * request beyond the method and the path (no trace-id, no Locale).
+	 * 
+	 * @param method      HTTP method of the request
+	 * @param path        {@link #lookupPath} of the request
+	 * @param contentType of the body, {@code null} for a {@code ProblemDetail}
+	 *                    left to the message converters
+	 * @param body        the final 404 body: serialized bytes or a
+	 *                    {@code ProblemDetail}
+	 */
+	public void learn(String method, String path, @Nullable MediaType contentType, Object body) {
+		Response response;
+		if (body instanceof byte[] && contentType != null) {
+			response = new Response(contentType, (byte[]) body);
+		} else if (body instanceof ProblemDetail) {
+			try {
+				response = new Response(ProblemDetailCache.APPLICATION_PROBLEM_JSON, this.objectMapper.writeValueAsBytes(body));
+			} catch (JsonProcessingException e) {
+				// not cached: the path goes through the DispatcherServlet
+				return;
+			}
+		} else {
+			return;
+		}
+
+		long now = this.nanoTime.getAsLong();
+		String key = key(method, path);
+		if (!this.entries.containsKey(key) && this.entries.size() >= this.maxEntries) {
+			evictExpired(now);
+			if (this.entries.size() >= this.maxEntries) {
+				return;
+			}
+		}
+		this.entries.compute(key, (k, entry) -> entry == null || now - entry.expiresAt >= 0
+				? new Entry(new Response[] { response }, now + this.ttlNanos)
+				: entry.with(response));
+	}
+
+	/**
+	 * @param method HTTP method of the request
+	 * @param path   {@link #lookupPath} of the request
+	 * @param accept media types accepted by the client, most preferred first;
+	 *               empty for any
+	 * @return the serialized 404 response, or {@code null} if the path is not
+	 *         known to be missing or no body of an acceptable type is known
+	 */
+	@Nullable
+	public Response lookup(String method, String path, List<MediaType> accept) {
+		if (this.entries.isEmpty()) {
+			return null;
+		}
+		String key = key(method, path);
+		Entry entry = this.entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (this.nanoTime.getAsLong() - entry.expiresAt >= 0) {
+			this.entries.remove(key, entry);
+			return null;
+		}
+		if (accept.isEmpty()) {
+			return entry.responses[0];
+		}
+		for (MediaType acceptable : accept) {
+			for (Response response : entry.responses) {
+				if (acceptable.isCompatibleWith(response.contentType)) {
+					return response;
+				}
+				if (acceptable.isCompatibleWith(MediaType.APPLICATION_JSON)
+						&& ProblemDetailCache.APPLICATION_PROBLEM_JSON.equals(response.contentType)) {
+					// o mesmo corpo, com o tipo que os message converters negociariam
+					return new Response(MediaType.APPLICATION_JSON, response.body);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Forgets every path, e.g. after handler mappings are registered.
+	 */
+	public void invalidate() {
+		this.entries.clear();
+	}
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		invalidate();
+	}
+
+	int size() {
+		return this.entries.size();
+	}
+
+	private void evictExpired(long now) {
+		for (Iterator<Entry> iterator = this.entries.values().iterator(); iterator.hasNext();) {
+			if (now - iterator.next().expiresAt >= 0) {
+				iterator.remove();
+			}
+		}
+	}
+
+	private static String key(String method, String path) {
+		return method + ' ' + path;
+	}
+
+	private static final class Entry {
+		private final Response[] responses;
+		private final long expiresAt;
+
+		private Entry(Response[] responses, long expiresAt) {
+			this.responses = responses;
+			this.expiresAt = expiresAt;
+		}
+
+		/**
+		 * Adds or replaces the body of the content type, keeping the TTL.
+		 */
+		private Entry with(Response response) {
+			int i = 0;
+			while (i < this.responses.length && !this.responses[i].contentType.equals(response.contentType)) {
+				i++;
+			}
+			Response[] copy = Arrays.copyOf(this.responses, Math.max(i + 1, this.responses.length));
+			copy[i] = response;
+			return new Entry(copy, this.expiresAt);
+		}
+	}
+}
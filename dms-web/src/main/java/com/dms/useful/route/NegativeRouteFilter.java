@@ -0,0 +1,95 @@
+package com.dms.useful.route;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.dms.useful.exception.handler.ResourcesExceptionHandler;
+import com.dms.useful.trace.TraceContext;
+
+/**
+ * Servlet filter that answers paths known to have no handler with the
+ * pre-serialized 404 {@code ProblemDetail} of the {@link NegativeRouteCache},
+ * before handler mapping. Requests accepting none of the known content
+ * types go on to the {@code DispatcherServlet}, which adds their type.
+ * Registered after the {@code TraceContextFilter}, the cached responses
+ * carry the X-Trace-Id header of the request, like the handler ones.
+ * 
+ * <pre>
+ * Ex.:
+ * &#64;Bean
+ * public NegativeRouteCache negativeRouteCache(ObjectMapper objectMapper) {
+ *     return new NegativeRouteCache(objectMapper, Duration.ofMinutes(5), 10_000);
+ * }
+ * 
+ * &#64;Bean
+ * public FilterRegistrationBean&lt;NegativeRouteFilter&gt; negativeRouteFilter(NegativeRouteCache cache) {
+ *     return new FilterRegistrationBean&lt;&gt;(new NegativeRouteFilter(cache));
+ * }
+ * 
+ * And in the handler of the application:
+ * &#64;Override
+ * protected NegativeRouteCache getNegativeRouteCache() {
+ *     return negativeRouteCache;
+ * }
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class NegativeRouteFilter extends OncePerRequestFilter {
+
+	private final NegativeRouteCache cache;
+
+	public NegativeRouteFilter(NegativeRouteCache cache) {
+		Assert.notNull(cache, "NegativeRouteCache is required");
+		this.cache = cache;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		NegativeRouteCache.Response cached = this.cache.lookup(request.getMethod(),
+				NegativeRouteCache.lookupPath(request), getAccept(request));
+		if (cached == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+		CharSequence traceId = TraceContext.traceId();
+		if (traceId != null) {
+			response.setHeader(ResourcesExceptionHandler.TRACE_ID_HEADER, traceId.toString());
+		}
+		response.setContentType(cached.getContentType().toString());
+		response.setContentLength(cached.getBody().length);
+		response.getOutputStream().write(cached.getBody());
+	}
+
+	private static List<MediaType> getAccept(HttpServletRequest request) {
+		String accept = request.getHeader(HttpHeaders.ACCEPT);
+		if (!StringUtils.hasText(accept)) {
+			return Collections.emptyList();
+		}
+		try {
+			List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+			MediaType.sortBySpecificityAndQuality(mediaTypes);
+			return mediaTypes;
+		} catch (InvalidMediaTypeException e) {
+			// a DispatcherServlet responde
+			return Collections.singletonList(new MediaType("invalid", "invalid"));
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.dms.useful.trace;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Filtro que inicia o {@link TraceContext} da requisição, a partir do
+ * header W3C {@code traceparent} ou com um trace-id gerado.
+ * 
+ * <pre>
+ * O ResourcesExceptionHandler adiciona o trace-id ao header X-Trace-Id das
+ * respostas de erro (e, se isTraceIdInProperties(), à propriedade traceId
+ * do ProblemDetail).
+ * 
+ * Ex.:
+ * &#64;Bean
+ * public FilterRegistrationBean&lt;TraceContextFilter&gt; traceContextFilter() {
+ *     FilterRegistrationBean&lt;TraceContextFilter&gt; registration = new FilterRegistrationBean&lt;&gt;(new TraceContextFilter());
+ *     registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+ *     return registration;
+ * }
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class TraceContextFilter extends OncePerRequestFilter {
+
+	public static final String TRACEPARENT = "traceparent";
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		TraceContext.start(request.getHeader(TRACEPARENT));
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			TraceContext.clear();
+		}
+	}
+}
@@ -0,0 +1,327 @@
+package com.dms.useful.warmup;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.MethodParameter;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.util.Assert;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.NoHandlerFoundException;
+
+import com.dms.useful.event.ResourceCreatedEvent;
+import com.dms.useful.event.listener.ResourceCreatedListener;
+import com.dms.useful.exception.BulkValidationException;
+import com.dms.useful.exception.ConcurrencyLimitExceededException;
+import com.dms.useful.exception.DataAccessContentionException;
+import com.dms.useful.exception.DatabaseUnavailableException;
+import com.dms.useful.exception.EntityNotFoundException;
+import com.dms.useful.exception.IdempotencyKeyConflictException;
+import com.dms.useful.exception.RequestDeadlineExceededException;
+import com.dms.useful.exception.VersionConflictException;
+import com.dms.useful.exception.handler.ResourcesExceptionHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@code ErrorPathWarmUp} exercita o caminho de erro assim que o contexto é
+ * atualizado, para que o primeiro 4xx/5xx após um deploy não pague o
+ * carregamento de classes e os metadados frios (serializers do Jackson,
+ * resolução dos &#64;ExceptionHandler, descritores do Bean Validation).
+ * 
+ * <pre>
+ * - todos os caminhos do ResourcesExceptionHandler (e assim todos os
+ *   ProblemType), em JSON e CBOR, com exceções sintéticas;
+ * - o HandlerExceptionResolver da aplicação, se definido: resolução dos
+ *   métodos &#64;ExceptionHandler e os message converters (Jackson);
+ * - o ObjectMapper, se definido, em cada ProblemDetail;
+ * - os metadados do Bean Validation dos DTOs registrados;
+ * - os beans ResourceCreatedListener, com um evento sintético.
+ * 
+ * As chamadas rodam dentro de ResourcesExceptionHandler.withoutSideEffects:
+ * o NegativeRouteCache e o ProblemDetailCache não são usados e nenhum evento
+ * JFR é registrado, logo o caminho sintético não deixa estado de produção.
+ * 
+ * Roda de forma síncrona, uma vez, no ContextRefreshedEvent: o refresh (e,
+ * no Spring Boot, o ApplicationReadyEvent e o estado de readiness) espera
+ * por ele. Falhas são registradas no log e nunca param a aplicação.
+ * 
+ * Opcional, como bean:
+ * &#64;Bean
+ * public ErrorPathWarmUp errorPathWarmUp(ApplicationExceptionHandler handler,
+ *         HandlerExceptionResolver handlerExceptionResolver, ObjectMapper objectMapper, Validator validator) {
+ *     ErrorPathWarmUp warmUp = new ErrorPathWarmUp(handler);
+ *     warmUp.setHandlerExceptionResolver(handlerExceptionResolver);
+ *     warmUp.setObjectMapper(objectMapper);
+ *     warmUp.setValidator(validator, ProductInput.class, CustomerInput.class);
+ *     return warmUp;
+ * }
+ * </pre>
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+public class ErrorPathWarmUp implements ApplicationListener<ContextRefreshedEvent> {
+
+	private static final Log logger = LogFactory.getLog(ErrorPathWarmUp.class);
+
+	private static final List<String> ACCEPTS = List.of(MediaType.APPLICATION_JSON_VALUE, "application/cbor");
+
+	private final ResourcesExceptionHandler handler;
+	private final int iterations;
+	private final AtomicBoolean done = new AtomicBoolean();
+
+	@Nullable
+	private HandlerExceptionResolver handlerExceptionResolver;
+	@Nullable
+	private ObjectMapper objectMapper;
+	@Nullable
+	private Validator validator;
+	private List<Class<?>> dtos = Collections.emptyList();
+	private List<ResourceCreatedListener<?>> listeners = Collections.emptyList();
+
+	private volatile Duration duration;
+
+	/**
+	 * Uma passada: os metadados só estão frios na primeira chamada.
+	 */
+	public ErrorPathWarmUp(ResourcesExceptionHandler handler) {
+		this(handler, 1);
+	}
+
+	/**
+	 * @param handler    o exception handler da aplicação
+	 * @param iterations passadas por cada caminho; as passadas após a
+	 *                   primeira só repetem as mesmas chamadas (poucas demais
+	 *                   para o JIT compilar o caminho)
+	 */
+	public ErrorPathWarmUp(ResourcesExceptionHandler handler, int iterations) {
+		Assert.notNull(handler, "ResourcesExceptionHandler is required");
+		Assert.isTrue(iterations > 0, "Iterations must be greater than zero");
+		this.handler = handler;
+		this.iterations = iterations;
+	}
+
+	/**
+	 * @param handlerExceptionResolver resolver do DispatcherServlet
+	 *                                 (bean {@code handlerExceptionResolver})
+	 */
+	public void setHandlerExceptionResolver(@Nullable HandlerExceptionResolver handlerExceptionResolver) {
+		this.handlerExceptionResolver = handlerExceptionResolver;
+	}
+
+	/**
+	 * @param objectMapper mapper dos message converters
+	 */
+	public void setObjectMapper(@Nullable ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * @param validator validator da aplicação
+	 * @param dtos      classes validadas com {@code @Valid}
+	 */
+	public void setValidator(@Nullable Validator validator, Class<?>... dtos) {
+		this.validator = validator;
+		this.dtos = List.of(dtos);
+	}
+
+	public void setResourceCreatedListeners(List<ResourceCreatedListener<?>> listeners) {
+		Assert.notNull(listeners, "Listeners must not be null");
+		this.listeners = List.copyOf(listeners);
+	}
+
+	/**
+	 * @return quanto o aquecimento levou, ou {@code null} antes de rodar
+	 */
+	@Nullable
+	public Duration getDuration() {
+		return this.duration;
+	}
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		if (this.done.compareAndSet(false, true)) {
+			warmUp();
+		}
+	}
+
+	/**
+	 * Executa o aquecimento agora.
+	 * 
+	 * @return número de chamadas que falharam
+	 */
+	public int warmUp() {
+		long start = System.nanoTime();
+		int failures = ResourcesExceptionHandler.withoutSideEffects(this::exercise);
+		this.duration = Duration.ofNanos(System.nanoTime() - start);
+		if (logger.isInfoEnabled()) {
+			logger.info(String.format("Error path warm-up finished in %d ms (%d iteration(s), %d DTO(s), %d failure(s))",
+					this.duration.toMillis(), this.iterations, this.dtos.size(), failures));
+		}
+		return failures;
+	}
+
+	private int exercise() {
+		int failures = 0;
+		if (this.validator != null) {
+			for (Class<?> dto : this.dtos) {
+				try {
+					this.validator.getConstraintsForClass(dto);
+				} catch (RuntimeException e) {
+					failures += failed(dto.getName(), e);
+				}
+			}
+		}
+		for (int i = 0; i < this.iterations; i++) {
+			for (Exception ex : exceptions()) {
+				for (String accept : ACCEPTS) {
+					failures += handle(ex, accept);
+					failures += resolve(ex, accept);
+				}
+			}
+			for (ResourceCreatedListener<?> listener : this.listeners) {
+				failures += publish(listener);
+			}
+		}
+		return failures;
+	}
+
+	private int handle(Exception ex, String accept) {
+		HttpServletRequest request = WarmUpServlet.request(accept);
+		try {
+			Object body = this.handler
+					.handlerResourcesException(ex, new ServletWebRequest(request, WarmUpServlet.response()))
+					.getBody();
+			if (this.objectMapper != null && !(body instanceof byte[])) {
+				this.objectMapper.writeValueAsBytes(body);
+			}
+			return 0;
+		} catch (Exception e) {
+			return failed(ex.getClass().getName(), e);
+		}
+	}
+
+	private int resolve(Exception ex, String accept) {
+		if (this.handlerExceptionResolver == null) {
+			return 0;
+		}
+		try {
+			this.handlerExceptionResolver.resolveException(WarmUpServlet.request(accept), WarmUpServlet.response(),
+					null, ex);
+			return 0;
+		} catch (RuntimeException e) {
+			return failed(ex.getClass().getName(), e);
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private int publish(ResourceCreatedListener listener) {
+		try {
+			listener.onApplicationEvent(new WarmUpEvent(WarmUpServlet.response()));
+			return 0;
+		} catch (RuntimeException e) {
+			return failed(listener.getClass().getName(), e);
+		}
+	}
+
+	private static int failed(String what, Exception e) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Warm-up of " + what + " failed", e);
+		}
+		return 1;
+	}
+
+	/**
+	 * Uma exceção para cada caminho do {@code ResourcesExceptionHandler}.
+	 */
+	static List<Exception> exceptions() {
+		List<Exception> exceptions = new ArrayList<>();
+		exceptions.add(new ConstraintViolationException("warm-up", Collections.emptySet()));
+		exceptions.add(new DataIntegrityViolationException("warm-up"));
+		exceptions.add(new EmptyResultDataAccessException(1));
+		exceptions.add(new NoSuchElementException("warm-up"));
+		exceptions.add(new EntityNotFoundException("warm-up"));
+		exceptions.add(new BulkValidationException(Map.of("items[0].name", "must not be blank"), false));
+		exceptions.add(new ConcurrencyLimitExceededException(1, HttpStatus.SERVICE_UNAVAILABLE, 1));
+		exceptions.add(new DatabaseUnavailableException(1));
+		exceptions.add(new IdempotencyKeyConflictException("warm-up", HttpStatus.CONFLICT));
+		exceptions.add(new DataAccessContentionException(1, 1, null));
+		exceptions.add(new QueryTimeoutException("warm-up"));
+		exceptions.add(new CannotAcquireLockException("warm-up"));
+		exceptions.add(new TransactionTimedOutException("warm-up"));
+		exceptions.add(new RequestDeadlineExceededException("warm-up"));
+		exceptions.add(new VersionConflictException("WarmUp", 0, 0, null));
+		exceptions.add(new OptimisticLockingFailureException("warm-up"));
+		exceptions.add(new NoHandlerFoundException("GET", WarmUpServlet.PATH, new HttpHeaders()));
+		exceptions.add(new HttpRequestMethodNotSupportedException("TRACE", List.of("GET")));
+		exceptions.add(new HttpMediaTypeNotSupportedException(MediaType.TEXT_PLAIN, List.of(MediaType.APPLICATION_JSON)));
+		exceptions.add(new HttpMediaTypeNotAcceptableException(List.of(MediaType.APPLICATION_JSON)));
+		exceptions.add(new HttpMessageNotReadableException("warm-up",
+				new ServletServerHttpRequest(WarmUpServlet.request(MediaType.APPLICATION_JSON_VALUE))));
+		exceptions.add(methodArgumentNotValid());
+		exceptions.add(new IllegalStateException("warm-up"));
+		return exceptions;
+	}
+
+	private static MethodArgumentNotValidException methodArgumentNotValid() {
+		BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new Object(), "warmUp");
+		bindingResult.addError(new FieldError("warmUp", "name", "must not be blank"));
+		try {
+			Method method = ErrorPathWarmUp.class.getDeclaredMethod("body", Object.class);
+			return new MethodArgumentNotValidException(new MethodParameter(method, 0), bindingResult);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Parâmetro {@code @Valid} do {@code MethodArgumentNotValidException}.
+	 */
+	@SuppressWarnings("unused")
+	private static void body(Object body) {
+	}
+
+	private static class WarmUpEvent extends ResourceCreatedEvent<Object> {
+
+		private static final long serialVersionUID = 1L;
+
+		WarmUpEvent(HttpServletResponse response) {
+			super(ErrorPathWarmUp.class, response, "0", URI.create("http://localhost" + WarmUpServlet.PATH));
+		}
+	}
+}
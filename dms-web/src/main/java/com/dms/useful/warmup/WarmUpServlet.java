@@ -0,0 +1,165 @@
+package com.dms.useful.warmup;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+/**
+ * Requisição e resposta sintéticas do {@link ErrorPathWarmUp}, sem
+ * container: a resposta descarta o corpo.
+ * 
+ * @author Diorgenes Morais
+ * @since 3.0.0
+ */
+final class WarmUpServlet {
+
+	static final String PATH = "/.dms-warm-up";
+
+	private WarmUpServlet() {
+	}
+
+	static HttpServletRequest request(String accept) {
+		Map<String, Object> attributes = new HashMap<>();
+		return (HttpServletRequest) Proxy.newProxyInstance(WarmUpServlet.class.getClassLoader(),
+				new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getMethod":
+						return "GET";
+					case "getRequestURI":
+					case "getServletPath":
+						return PATH;
+					case "getRequestURL":
+						return new StringBuffer("http://localhost").append(PATH);
+					case "getScheme":
+						return "http";
+					case "getServerName":
+						return "localhost";
+					case "getServerPort":
+						return 80;
+					case "getContextPath":
+						return "";
+					case "getProtocol":
+						return "HTTP/1.1";
+					case "getLocale":
+						return Locale.getDefault();
+					case "getLocales":
+						return Collections.enumeration(List.of(Locale.getDefault()));
+					case "getHeader":
+						return HttpHeaders.ACCEPT.equalsIgnoreCase((String) args[0]) ? accept : null;
+					case "getHeaders":
+						return HttpHeaders.ACCEPT.equalsIgnoreCase((String) args[0])
+								? Collections.enumeration(List.of(accept))
+								: Collections.emptyEnumeration();
+					case "getHeaderNames":
+						return Collections.enumeration(List.of(HttpHeaders.ACCEPT));
+					case "getAttribute":
+						return attributes.get(args[0]);
+					case "getAttributeNames":
+						return Collections.enumeration(new ArrayList<>(attributes.keySet()));
+					case "setAttribute":
+						attributes.put((String) args[0], args[1]);
+						return null;
+					case "removeAttribute":
+						attributes.remove(args[0]);
+						return null;
+					default:
+						return defaultValue(method.getReturnType());
+					}
+				});
+	}
+
+	static HttpServletResponse response() {
+		Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>();
+		int[] status = { HttpServletResponse.SC_OK };
+		ServletOutputStream body = new ServletOutputStream() {
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+			}
+
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		};
+		return (HttpServletResponse) Proxy.newProxyInstance(WarmUpServlet.class.getClassLoader(),
+				new Class<?>[] { HttpServletResponse.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getOutputStream":
+						return body;
+					case "getWriter":
+						return new PrintWriter(Writer.nullWriter());
+					case "setStatus":
+					case "sendError":
+						status[0] = (Integer) args[0];
+						return null;
+					case "getStatus":
+						return status[0];
+					case "setHeader":
+						headers.put((String) args[0], new ArrayList<>(List.of(String.valueOf(args[1]))));
+						return null;
+					case "addHeader":
+						headers.computeIfAbsent((String) args[0], name -> new ArrayList<>())
+								.add(String.valueOf(args[1]));
+						return null;
+					case "containsHeader":
+						return headers.containsKey(args[0]);
+					case "getHeader":
+						List<String> values = headers.get(args[0]);
+						return values != null ? values.get(0) : null;
+					case "getHeaders":
+						return headers.getOrDefault(args[0], Collections.emptyList());
+					case "getHeaderNames":
+						return new ArrayList<>(headers.keySet());
+					case "getCharacterEncoding":
+						return "UTF-8";
+					default:
+						return defaultValue(method.getReturnType());
+					}
+				});
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class) {
+			return false;
+		} else if (type == int.class) {
+			return 0;
+		} else if (type == long.class) {
+			return 0L;
+		} else if (type == Enumeration.class) {
+			return Collections.emptyEnumeration();
+		} else if (type == Map.class) {
+			return Collections.emptyMap();
+		} else if (type == Set.class) {
+			return Collections.emptySet();
+		} else if (type == Collection.class || type == List.class) {
+			return Collections.emptyList();
+		}
+		return null;
+	}
+}
@@ -0,0 +1,56 @@
+package com.dms.useful.deadline;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+
+import javax.servlet.FilterChain;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class RequestDeadlineFilterTest {
+
+	private final RequestDeadlineFilter filter = new RequestDeadlineFilter(Duration.ofSeconds(2),
+			Duration.ofSeconds(10), RequestDeadlineFilter.DEFAULT_HEADER);
+
+	@Test
+	public void shouldCapTheBudgetOfTheHeader() {
+		assertEquals(2000, filter.budgetMillis(null));
+		assertEquals(500, filter.budgetMillis("500"));
+		assertEquals(10000, filter.budgetMillis("60000"));
+		assertEquals(2000, filter.budgetMillis("0"));
+		assertEquals(2000, filter.budgetMillis("1s"));
+	}
+
+	@Test
+	public void shouldHoldTheDeadlineDuringTheRequest() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+		request.addHeader(RequestDeadlineFilter.DEFAULT_HEADER, "500");
+		long[] remaining = new long[1];
+		FilterChain chain = (req, res) -> {
+			assertTrue(RequestDeadline.isActive());
+			assertFalse(RequestDeadline.isExpired());
+			remaining[0] = RequestDeadline.remainingMillis();
+		};
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertTrue(remaining[0] > 0 && remaining[0] <= 500);
+		assertFalse(RequestDeadline.isActive());
+		assertEquals(Long.MAX_VALUE, RequestDeadline.remainingMillis());
+	}
+
+	@Test
+	public void shouldExpire() throws Exception {
+		RequestDeadline.start(Duration.ofMillis(1));
+		try {
+			Thread.sleep(5);
+			assertTrue(RequestDeadline.isExpired());
+			assertTrue(RequestDeadline.remainingMillis() <= 0);
+		} finally {
+			RequestDeadline.clear();
+		}
+	}
+}
@@ -1,5 +1,8 @@
 package com.dms.useful.event;
 
+import java.net.URI;
+
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.lang.NonNull;
@@ -12,4 +15,12 @@ public class ResourceCreatedEventImpl extends ResourceCreatedEvent<Integer> {
 		super(source, response, id);
 	}
 
+	public ResourceCreatedEventImpl(Object source, HttpServletRequest request, HttpServletResponse response, @NonNull Integer id) {
+		super(source, request, response, id);
+	}
+
+	public ResourceCreatedEventImpl(Object source, @NonNull Integer id, URI baseUri) {
+		super(source, id, baseUri);
+	}
+
 }
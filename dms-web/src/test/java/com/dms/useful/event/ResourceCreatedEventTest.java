@@ -0,0 +1,87 @@
+package com.dms.useful.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class ResourceCreatedEventTest {
+
+	private HttpServletResponse servletResponse;
+	private ResourceCreatedEvent<Integer> resource;
+	private ExpectedException exception;
+
+	@Before
+	public void setup() {
+		this.servletResponse = new MockHttpServletResponse();
+	}
+
+	@Test
+	public void shouldGetTheResponse() throws Exception {
+		this.servletResponse.addHeader("location", "localhost");
+		this.resource = new ResourceCreatedEventImpl(this, this.servletResponse, 1);
+
+		assertTrue(resource.getResponse().containsHeader("location"));
+	}
+
+	@SuppressWarnings("null")
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowsAnException() throws Exception {
+		this.resource = new ResourceCreatedEventImpl(this, this.servletResponse, null);
+	}
+
+	@SuppressWarnings("null")
+	@Test(expected = Exception.class)
+	public void shouldGetMessageOfException() throws Exception {
+		exception.reportMissingExceptionWithMessage("Id should not be null, error in com.dms.useful.event.ResourceCreatedEvent");
+		this.resource = new ResourceCreatedEventImpl(this, this.servletResponse, null);
+	}
+
+	@Test
+	public void shouldCaptureTheUriOfTheCurrentRequest() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/products");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		try {
+			this.resource = new ResourceCreatedEventImpl(this, this.servletResponse, 1);
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+
+		assertEquals(URI.create("http://localhost/products"), resource.getBaseUri());
+	}
+
+	@Test
+	public void shouldCaptureTheUriOfTheGivenRequest() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/products");
+
+		this.resource = new ResourceCreatedEventImpl(this, request, this.servletResponse, 1);
+
+		assertEquals(URI.create("http://localhost/products"), resource.getBaseUri());
+	}
+
+	@Test
+	public void shouldNotHaveBaseUriOutsideTheRequest() throws Exception {
+		this.resource = new ResourceCreatedEventImpl(this, this.servletResponse, 1);
+
+		assertNull(resource.getBaseUri());
+	}
+
+	@Test
+	public void shouldBeCreatedWithoutServletObjects() throws Exception {
+		this.resource = new ResourceCreatedEventImpl(this, 1, URI.create("http://localhost/products"));
+
+		assertNull(resource.getResponse());
+		assertEquals(URI.create("http://localhost/products"), resource.getBaseUri());
+	}
+}
@@ -0,0 +1,34 @@
+package com.dms.useful.event.listener;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.dms.useful.event.ResourceCreatedEventImpl;
+
+public class ResourceCreatedListenerTest {
+
+	private final ResourceCreatedListener<Integer> listener = new ResourceCreatedListener<Integer>() {
+	};
+
+	@Test
+	public void shouldAddTheLocationFromAnotherThread() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/products");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		CompletableFuture.runAsync(() -> listener.onApplicationEvent(new ResourceCreatedEventImpl(this, request, response, 42)))
+				.get();
+
+		assertEquals("http://localhost/products/42", response.getHeader("Location"));
+	}
+
+	@Test
+	public void shouldIgnoreEventsWithoutResponse() throws Exception {
+		listener.onApplicationEvent(new ResourceCreatedEventImpl(this, 42, URI.create("http://localhost/products")));
+	}
+}
@@ -0,0 +1,140 @@
+package com.dms.useful.exception.handler;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import jdk.jfr.Enabled;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class ExceptionHandlingEventTest {
+
+	private final ResourcesExceptionHandler handler = new ApplicationExceptionHandler();
+
+	private WebRequest request(String accept) {
+		MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/products");
+		servletRequest.addHeader(HttpHeaders.ACCEPT, accept);
+		return new ServletWebRequest(servletRequest, new MockHttpServletResponse());
+	}
+
+	private Exception notFound() {
+		return new EmptyResultDataAccessException("Incorrect result size", 1,
+				new IllegalStateException("no rows", new IllegalArgumentException("id 42")));
+	}
+
+	@Test
+	public void shouldBeDisabledByDefault() {
+		for (Class<?> type : List.of(ExceptionHandlingEvent.class, RootCauseResolutionEvent.class,
+				ProblemRenderingEvent.class)) {
+			assertFalse(type.getAnnotation(Enabled.class).value());
+		}
+	}
+
+	@Test
+	public void shouldNotRecordWithTheDefaultSettings() throws Exception {
+		List<RecordedEvent> events = record(null);
+
+		assertTrue(events.isEmpty());
+	}
+
+	@Test
+	public void shouldRecordDispatchRootCauseAndRendering() throws Exception {
+		List<RecordedEvent> events = record(new String[] { ExceptionHandlingEvent.NAME,
+				RootCauseResolutionEvent.NAME, ProblemRenderingEvent.NAME });
+
+		RecordedEvent handling = find(events, ExceptionHandlingEvent.NAME);
+		assertEquals(EmptyResultDataAccessException.class.getName(),
+				handling.getClass("exceptionClass").getName());
+		assertEquals(ProblemType.EMPTY_RESULT_DATA_ACCESS.name(), handling.getString("problemType"));
+		assertEquals(404, handling.getInt("status"));
+
+		RecordedEvent rootCause = find(events, RootCauseResolutionEvent.NAME);
+		assertEquals(IllegalArgumentException.class.getName(), rootCause.getClass("rootCauseClass").getName());
+		assertEquals(2, rootCause.getInt("depth"));
+
+		RecordedEvent rendering = find(events, ProblemRenderingEvent.NAME);
+		assertEquals("application/cbor", rendering.getString("contentType"));
+		assertTrue(rendering.getLong("size") > 0);
+	}
+
+	@Test
+	public void shouldMeasureTheBuildingOfTheProblemDetail() throws Exception {
+		WebRequest request = request("application/json");
+		List<RecordedEvent> events = record(new String[] { ExceptionHandlingEvent.NAME }, () -> {
+			ProblemDetail error = handler.createProblemDetail(HttpStatus.NOT_FOUND, ProblemType.NOT_FOUND, "detail",
+					request);
+			Thread.sleep(50);
+			handler.handleExceptionInternal(notFound(), error, new HttpHeaders(), HttpStatus.NOT_FOUND, request);
+		});
+
+		assertTrue(find(events, ExceptionHandlingEvent.NAME).getDuration().toMillis() >= 50);
+	}
+
+	@Test
+	public void shouldRecordTheJsonWrittenByTheMessageConverter() throws Exception {
+		ProblemRenderingHttpMessageConverter converter = new ProblemRenderingHttpMessageConverter(
+				new ObjectMapper().registerModule(new JavaTimeModule()));
+		MockHttpOutputMessage output = new MockHttpOutputMessage();
+		ProblemDetail problemDetail = ProblemDetail.builder(ProblemType.NOT_FOUND.getUri(), HttpStatus.NOT_FOUND)
+				.detail("Resource /products/42 not found");
+
+		List<RecordedEvent> events = record(new String[] { ProblemRenderingEvent.NAME },
+				() -> converter.write(problemDetail, MediaType.APPLICATION_PROBLEM_JSON, output));
+
+		RecordedEvent rendering = find(events, ProblemRenderingEvent.NAME);
+		assertEquals("application/problem+json", rendering.getString("contentType"));
+		assertEquals(output.getBodyAsBytes().length, rendering.getLong("size"));
+	}
+
+	interface Action {
+		void run() throws Exception;
+	}
+
+	private List<RecordedEvent> record(String[] enabled) throws Exception {
+		return record(enabled, () -> handler.handlerResourcesException(notFound(), request("application/cbor")));
+	}
+
+	private List<RecordedEvent> record(String[] enabled, Action action) throws Exception {
+		Path file = Files.createTempFile("problem-events", ".jfr");
+		try (Recording recording = new Recording()) {
+			if (enabled != null) {
+				for (String name : enabled) {
+					recording.enable(name).withoutThreshold();
+				}
+			}
+			recording.start();
+			action.run();
+			recording.stop();
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getEventType().getName().startsWith("com.dms.useful."))
+					.collect(Collectors.toList());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static RecordedEvent find(List<RecordedEvent> events, String name) {
+		return events.stream().filter(event -> event.getEventType().getName().equals(name)).findFirst()
+				.orElseThrow(() -> new AssertionError(name + " not recorded"));
+	}
+}
@@ -3,6 +3,8 @@ package com.dms.useful.exception.handler;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
+import com.dms.useful.validation.CPF;
+
 /**
  * Este é um mock que representa um modelo (entity).
  * 
@@ -15,6 +17,8 @@ public class Model {
 	private String nome;
 	@NotEmpty
 	private String sobrenome;
+	@CPF
+	private String cpf;
 
 	public String getNome() {
 		return nome;
@@ -31,4 +35,12 @@ public class Model {
 	public void setSobrenome(String sobrenome) {
 		this.sobrenome = sobrenome;
 	}
+
+	public String getCpf() {
+		return cpf;
+	}
+
+	public void setCpf(String cpf) {
+		this.cpf = cpf;
+	}
 }
@@ -0,0 +1,111 @@
+package com.dms.useful.exception.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+public class ProblemDetailCodecTest {
+
+	private final ProblemDetailCodec codec = new ProblemDetailCodec();
+
+	private ProblemDetail problemDetail() {
+		Map<String, Object> properties = new LinkedHashMap<>();
+		properties.put("nome", "não pode ser nulo");
+		return ProblemDetail.builder(ProblemType.METHOD_ARGUMENT_NOT_VALID.getUri(), HttpStatus.BAD_REQUEST)
+				.title(ProblemType.METHOD_ARGUMENT_NOT_VALID.getTitle())
+				.detail("Por favor, verificar as propriedades do objeto properties")
+				.instance(URI.create("/products"))
+				.timestamp(OffsetDateTime.of(2026, 10, 18, 10, 30, 0, 0, ZoneOffset.UTC))
+				.properties(properties);
+	}
+
+	private static List<String> names(JsonNode node) {
+		List<String> names = new ArrayList<>();
+		node.fieldNames().forEachRemaining(names::add);
+		return names;
+	}
+
+	@Test
+	public void shouldDecodeWhatWasEncoded() throws Exception {
+		ProblemDetail problemDetail = problemDetail();
+
+		byte[] cbor = codec.encode(problemDetail);
+
+		assertEquals(problemDetail, codec.decode(cbor, ProblemDetailCodec.APPLICATION_CBOR));
+	}
+
+	@Test
+	public void shouldDecodeJson() throws Exception {
+		ProblemDetail problemDetail = problemDetail();
+		byte[] json = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsBytes(problemDetail);
+
+		assertEquals(problemDetail, codec.decode(json, ProblemDetailCache.APPLICATION_PROBLEM_JSON));
+	}
+
+	@Test
+	public void shouldWriteTheSameFieldsOfTheJson() throws Exception {
+		ProblemDetail problemDetail = problemDetail();
+		// como o ObjectMapper do Spring Boot
+		ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(problemDetail));
+
+		assertEquals(json, new CBORMapper().readTree(new ProblemDetailCodec(objectMapper).encode(problemDetail)));
+		assertEquals(json, new CBORMapper().readTree(codec.encode(problemDetail)));
+		assertTrue(json.get("timestamp").isTextual());
+	}
+
+	@Test
+	public void shouldFollowTheApplicationMapper() throws Exception {
+		ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+				.setPropertyNamingStrategy(PropertyNamingStrategies.UPPER_CAMEL_CASE);
+
+		JsonNode cbor = new CBORMapper().readTree(new ProblemDetailCodec(objectMapper).encode(problemDetail()));
+
+		JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(problemDetail()));
+		assertEquals(names(json), names(cbor));
+		assertTrue(json.get("Timestamp").isNumber());
+		assertEquals(json.get("Timestamp").asDouble(), cbor.get("Timestamp").asDouble(), 0);
+		// o mapper da aplicação não é alterado
+		assertTrue(objectMapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+	}
+
+	@Test
+	public void shouldBeSmallerThanJson() throws Exception {
+		ProblemDetail problemDetail = problemDetail();
+		byte[] json = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsBytes(problemDetail);
+
+		assertTrue(codec.encode(problemDetail).length < json.length);
+	}
+
+	@Test
+	public void shouldNegotiateCborOnlyWhenAskedFor() throws Exception {
+		assertTrue(codec.isCborAcceptable(MediaType.parseMediaTypes("application/cbor")));
+		assertTrue(codec.isCborAcceptable(MediaType.parseMediaTypes("application/json;q=0.5, application/cbor")));
+		assertFalse(codec.isCborAcceptable(MediaType.parseMediaTypes("application/json, application/cbor")));
+		assertFalse(codec.isCborAcceptable(MediaType.parseMediaTypes("*/*")));
+		assertFalse(codec.isCborAcceptable(MediaType.parseMediaTypes("application/cbor;q=0")));
+		assertFalse(codec.isCborAcceptable(Collections.emptyList()));
+	}
+}
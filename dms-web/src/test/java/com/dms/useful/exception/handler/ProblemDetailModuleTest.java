@@ -0,0 +1,123 @@
+package com.dms.useful.exception.handler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+/**
+ * The output of {@code ProblemDetailModule} must be the same of the reflective
+ * serialization.
+ * 
+ * @author Diorgenes Morais
+ *
+ */
+public class ProblemDetailModuleTest {
+
+	private static List<ObjectMapper> mappers() {
+		return Arrays.asList(
+				new ObjectMapper()
+					.registerModule(new ParameterNamesModule())
+					.registerModule(new Jdk8Module())
+					.registerModule(new JavaTimeModule()),
+				new ObjectMapper()
+					.registerModule(new JavaTimeModule())
+					.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS),
+				new ObjectMapper()
+					.registerModule(new JavaTimeModule())
+					.setSerializationInclusion(Include.NON_NULL),
+				new ObjectMapper()
+					.registerModule(new JavaTimeModule())
+					.setSerializationInclusion(Include.NON_EMPTY),
+				new ObjectMapper()
+					.registerModule(new JavaTimeModule())
+					.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE),
+				new ObjectMapper()
+					.registerModule(new JavaTimeModule())
+					.enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY));
+	}
+
+	private static List<Object> values() {
+		Map<String, Object> properties = new LinkedHashMap<>();
+		properties.put("nome", "não pode ser nulo");
+		properties.put("omittedProperties", 3);
+		OffsetDateTime timestamp = OffsetDateTime.of(2026, 10, 18, 10, 30, 15, 123456789, ZoneOffset.ofHours(-3));
+
+		return Arrays.asList(
+				ProblemDetail.builder(ProblemType.NOT_FOUND.getUri(), HttpStatus.NOT_FOUND),
+				ProblemDetail.builder(ProblemType.METHOD_ARGUMENT_NOT_VALID.getUri(), HttpStatus.BAD_REQUEST)
+					.title("Method \"Argument\" Not Valid")
+					.detail("Por favor, verificar as propriedades do objeto properties")
+					.instance(URI.create("/products/%C3%A7"))
+					.timestamp(timestamp)
+					.properties(properties),
+				ProblemDetail.builder(ProblemType.NOT_FOUND.getUri(), HttpStatus.NOT_FOUND).status(499),
+				ErrorDetailsBuilder.builder().status(404).type("type").title("Not Found").build(),
+				ErrorDetailsBuilder.builder().status(500).type("type").title("title").detail("detail")
+					.instance("/products").timestamp(LocalDateTime.of(2026, 10, 18, 10, 30)).build(),
+				new ErroDTO("mensagem", "message"),
+				new ErroDTO(null, "message"));
+	}
+
+	@Test
+	public void shouldWriteTheSameBytesOfTheReflectiveSerialization() throws Exception {
+		for (ObjectMapper reflective : mappers()) {
+			ObjectMapper generated = reflective.copy().registerModule(new ProblemDetailModule());
+			for (Object value : values()) {
+				byte[] expected = reflective.writeValueAsBytes(value);
+
+				assertArrayEquals(new String(expected), expected, generated.writeValueAsBytes(value));
+			}
+		}
+	}
+
+	@Test
+	public void shouldUseTheDedicatedSerializersOnlyForTheDefaultContract() throws Exception {
+		ObjectMapper objectMapper = new ObjectMapper();
+		assertTrue(ProblemDetailModule.isDefaultContract(objectMapper.getSerializationConfig(), ErroDTO.class));
+		assertFalse(ProblemDetailModule.isDefaultContract(
+				objectMapper.copy().setSerializationInclusion(Include.NON_NULL).getSerializationConfig(), ErroDTO.class));
+		assertTrue(ProblemDetailModule.isDefaultContract(
+				objectMapper.copy().setSerializationInclusion(Include.NON_NULL).getSerializationConfig(),
+				ProblemDetail.class));
+		assertFalse(ProblemDetailModule.isDefaultContract(
+				objectMapper.copy().setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+						.getSerializationConfig(),
+				ProblemDetail.class));
+	}
+
+	@Test
+	public void shouldLeaveSubclassesToJackson() throws Exception {
+		ObjectMapper objectMapper = new ObjectMapper().registerModule(new ProblemDetailModule());
+
+		ProblemDetail problemDetail = new ProblemDetail("type", 404) {
+			@SuppressWarnings("unused")
+			public String getCode() {
+				return "E404";
+			}
+		};
+
+		assertEquals("E404", objectMapper.readTree(objectMapper.writeValueAsBytes(problemDetail)).get("code").asText());
+	}
+}
@@ -0,0 +1,96 @@
+package com.dms.useful.exception.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import com.dms.useful.exception.EntityNotFoundException;
+
+public class ProblemMessagesTest {
+
+	private static final Locale PT_BR = new Locale("pt", "BR");
+
+	private final ProblemMessages messages = new ProblemMessages("problem-messages", PT_BR);
+
+	@Test
+	public void shouldResolveByProblemType() throws Exception {
+		assertEquals("Recurso não encontrado",
+				messages.resolve(NoSuchElementException.class, ProblemType.NOT_FOUND, "detail", PT_BR));
+	}
+
+	@Test
+	public void shouldPreferTheExceptionClass() throws Exception {
+		assertEquals("Registro não encontrado: Produto 1. Tente novamente",
+				messages.resolve(EntityNotFoundException.class, ProblemType.NOT_FOUND, "Produto 1", PT_BR));
+	}
+
+	@Test
+	public void shouldFallBackToTheBaseFile() throws Exception {
+		assertEquals("Record not found: Produto 1",
+				messages.resolve(EntityNotFoundException.class, ProblemType.NOT_FOUND, "Produto 1", Locale.ENGLISH));
+	}
+
+	@Test
+	public void shouldFormatPatternsWithFormatTypes() throws Exception {
+		assertEquals("Error 'boom' at {1}",
+				messages.resolve(Exception.class, ProblemType.INTERNAL_SERVER_ERROR, "boom", Locale.ENGLISH));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectInvalidPatternsWhenCompiling() throws Exception {
+		ProblemMessages.Template.compile("Erro {0,inexistente}", Locale.ROOT);
+	}
+
+	@Test
+	public void shouldReadTheFilesAgainOnReload() throws Exception {
+		Path dir = Files.createTempDirectory("messages");
+		Path file = dir.resolve("reload-messages.properties");
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, null)) {
+			Files.write(file, "resource.not-found=Antes".getBytes(StandardCharsets.ISO_8859_1));
+			ProblemMessages reloadable = new ProblemMessages("reload-messages", classLoader, Locale.ENGLISH);
+			assertEquals("Antes", reloadable.resolve(Exception.class, ProblemType.NOT_FOUND, null, Locale.ENGLISH));
+
+			Files.write(file, "resource.not-found=Depois".getBytes(StandardCharsets.ISO_8859_1));
+			reloadable.reload();
+
+			assertEquals("Depois", reloadable.resolve(Exception.class, ProblemType.NOT_FOUND, null, Locale.ENGLISH));
+		} finally {
+			Files.delete(file);
+			Files.delete(dir);
+		}
+	}
+
+	@Test
+	public void shouldCompileOnlyTheKeysLookedUp() throws Exception {
+		Path dir = Files.createTempDirectory("messages");
+		Path file = dir.resolve("app-messages.properties");
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, null)) {
+			Files.write(file, String.join("\n", "Size.user.name=O nome deve ter entre {min} e {max} caracteres",
+					"java.lang.IllegalStateException=Erro {0,inexistente}", "resource.not-found=Não encontrado: {0}")
+					.getBytes(StandardCharsets.ISO_8859_1));
+
+			ProblemMessages appMessages = new ProblemMessages("app-messages", classLoader, Locale.ENGLISH);
+
+			assertEquals("Não encontrado: x",
+					appMessages.resolve(IllegalStateException.class, ProblemType.NOT_FOUND, "x", Locale.ENGLISH));
+		} finally {
+			Files.delete(file);
+			Files.delete(dir);
+		}
+	}
+
+	@Test
+	public void shouldReturnNullWithoutMessage() throws Exception {
+		assertNull(messages.resolve(Exception.class, ProblemType.CONSTRAINT_VIOLATION, "detail", PT_BR));
+		assertNull(new ProblemMessages("missing", PT_BR).resolve(Exception.class, ProblemType.NOT_FOUND, "detail", PT_BR));
+	}
+}
@@ -0,0 +1,786 @@
+package com.dms.useful.exception.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.NoHandlerFoundException;
+import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
+
+import com.dms.useful.exception.BulkValidationException;
+import com.dms.useful.exception.ConcurrencyLimitExceededException;
+import com.dms.useful.exception.DataAccessContentionException;
+import com.dms.useful.exception.DatabaseUnavailableException;
+import com.dms.useful.exception.IdempotencyKeyConflictException;
+import com.dms.useful.exception.RequestDeadlineExceededException;
+import com.dms.useful.exception.VersionConflictException;
+import com.dms.useful.route.NegativeRouteCache;
+import com.dms.useful.trace.TraceContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+/**
+ * Referente aos testes unitários da classe {@code ResourcesExceptionHandler}
+ * 
+ * @author Diorgenes Morais
+ *
+ */
+public class ResourcesExceptionHandlerTest {
+
+	private ResourcesExceptionHandler exceptionHandlerSupport;
+
+	private DefaultHandlerExceptionResolver defaultExceptionResolver;
+
+	private WebRequest request;
+
+	private HttpServletRequest servletRequest;
+
+	private MockHttpServletResponse servletResponse;
+	
+	private ObjectMapper objectMapper = new ObjectMapper()
+				.registerModule(new ParameterNamesModule())
+				.registerModule(new Jdk8Module())
+				.registerModule(new JavaTimeModule());
+
+	@Before
+	public void setup() {
+		this.servletRequest = new MockHttpServletRequest("GET", "/products");
+		this.servletResponse = new MockHttpServletResponse();
+		this.request = new ServletWebRequest(this.servletRequest, this.servletResponse);
+
+		this.exceptionHandlerSupport = new ApplicationExceptionHandler();
+
+		this.defaultExceptionResolver = new DefaultHandlerExceptionResolver();
+	}
+
+	@After
+	public void tearDown() {
+		TraceContext.clear();
+	}
+
+	private ResponseEntity<Object> testException(Exception ex) throws Exception {
+		ResponseEntity<Object> responseEntity = this.exceptionHandlerSupport.handlerResourcesException(ex,
+				this.request);
+
+		this.defaultExceptionResolver.resolveException(this.servletRequest, this.servletResponse, null, ex);
+
+		assertEquals(this.servletResponse.getStatus(), responseEntity.getStatusCodeValue());
+
+		String json = objectMapper.writeValueAsString(responseEntity.getBody());
+		System.out.println("Body: " + json);
+
+		return responseEntity;
+	}
+
+	@Test
+	public void whenHttpMediaTypeNotAcceptableException() throws Exception {
+		List<MediaType> acceptable = Arrays.asList(MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML);
+		Exception ex = new HttpMediaTypeNotAcceptableException(acceptable);
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.NOT_ACCEPTABLE, responseEntity.getStatusCode());
+	}
+
+	@Test
+	public void whenHttpMediaTypeNotSupported() throws Exception {
+		List<MediaType> acceptable = Arrays.asList(MediaType.APPLICATION_ATOM_XML, MediaType.APPLICATION_XML);
+		Exception ex = new HttpMediaTypeNotSupportedException(MediaType.APPLICATION_JSON, acceptable);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(acceptable, responseEntity.getHeaders().getAccept());
+		assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, responseEntity.getStatusCode());
+	}
+
+	@Test
+	public void whenHttpRequestMethodNotSupported() throws Exception {
+		List<String> supported = Arrays.asList("POST", "DELETE");
+		Exception ex = new HttpRequestMethodNotSupportedException("GET", supported);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(EnumSet.of(HttpMethod.POST, HttpMethod.DELETE), responseEntity.getHeaders().getAllow());
+		assertEquals(HttpStatus.METHOD_NOT_ALLOWED, responseEntity.getStatusCode());
+	}
+
+	@Test
+	public void whenConstraintException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_ACCEPTABLE);
+
+		Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+		Set<ConstraintViolation<Model>> violations = validator.validate(new Model());
+
+		Exception ex = new ConstraintViolationException(violations);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.NOT_ACCEPTABLE, responseEntity.getStatusCode());
+	}
+	
+	@Test
+	public void shouldGetTheMessageConstraintViolationException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_ACCEPTABLE);
+
+		Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+		Model model = new Model();
+		model.setNome("Romeu");
+		Set<ConstraintViolation<Model>> violations = validator.validate(model);
+
+		Exception ex = new ConstraintViolationException(violations);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.NOT_ACCEPTABLE, responseEntity.getStatusCode());
+	}
+	
+	@Test
+	public void shouldGetTheViolationsAsProperties() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_ACCEPTABLE);
+
+		Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+		Model model = new Model();
+		model.setNome("Romeu");
+		model.setSobrenome("Silva");
+		model.setCpf("111.111.111-11");
+		Set<ConstraintViolation<Model>> violations = validator.validate(model);
+
+		Exception ex = new ConstraintViolationException(violations);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		ProblemDetail problemDetail = (ProblemDetail) responseEntity.getBody();
+		assertEquals("CPF inválido", problemDetail.getProperties().get("cpf"));
+	}
+
+	@Test
+	public void whenDataIntegrityViolationException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_ACCEPTABLE);
+
+		Exception ex = new DataIntegrityViolationException("Não pode excluir");
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.NOT_ACCEPTABLE, responseEntity.getStatusCode());
+	}
+
+	@Test
+	public void whenDuplicateEntry() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_ACCEPTABLE);
+
+		Exception ex = new DataIntegrityViolationException("could not execute statement; "
+				+ "SQL [n/a]; constraint [nome]; nested exception is "
+				+ "org.hibernate.exception.ConstraintViolationException: could not execute statement", 
+				new SQLIntegrityConstraintViolationException("Duplicate entry 'MASTER' for key 'nome'"));
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.NOT_ACCEPTABLE, responseEntity.getStatusCode());
+	}
+
+	@Test
+	public void whenEmptyResultDataAccessException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
+		
+		Exception ex = new EmptyResultDataAccessException(1);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
+	}
+
+	@Test
+	public void whenHttpMessageNotReadableException() throws Exception {
+		@SuppressWarnings("deprecation")
+		Exception ex = new HttpMessageNotReadableException("message");
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+	}
+
+	@Test
+	public void whenMethodArgumentNotValidException() throws Exception {
+		Model model = new Model();
+		BindingResult bindingResult = new BeanPropertyBindingResult(model, "model");
+		bindingResult.addError(new FieldError("model", "nome", "Não pode ser nulo"));
+		bindingResult.addError(new FieldError("model", "sobrenome", "não pode ser nulo"));
+
+		Method method = Model.class.getDeclaredMethod("setNome", String.class);
+		MethodParameter parameter = new MethodParameter(method, 0);
+
+		Exception ex = new MethodArgumentNotValidException(parameter, bindingResult);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+	}
+
+	@Test
+	public void shouldKeepEveryErrorOfTheSameField() throws Exception {
+		Model model = new Model();
+		BindingResult bindingResult = new BeanPropertyBindingResult(model, "model");
+		bindingResult.addError(new FieldError("model", "nome", "Não pode ser nulo"));
+		bindingResult.addError(new FieldError("model", "nome", "tamanho inválido"));
+
+		Method method = Model.class.getDeclaredMethod("setNome", String.class);
+		MethodParameter parameter = new MethodParameter(method, 0);
+
+		Exception ex = new MethodArgumentNotValidException(parameter, bindingResult);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		ProblemDetail problemDetail = (ProblemDetail) responseEntity.getBody();
+		assertEquals("Não pode ser nulo, tamanho inválido", problemDetail.getProperties().get("nome"));
+	}
+
+	@Test
+	public void whenBulkValidationException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_BAD_REQUEST);
+
+		Map<String, String> violations = new LinkedHashMap<>();
+		violations.put("items[42].email", "must be a well-formed email address");
+		Exception ex = new BulkValidationException(violations, false);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		ProblemDetail problemDetail = (ProblemDetail) responseEntity.getBody();
+		assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+		assertEquals("must be a well-formed email address", problemDetail.getProperties().get("items[42].email"));
+	}
+
+	@Test
+	public void shouldReportTruncatedBulkValidation() throws Exception {
+		this.exceptionHandlerSupport = new ApplicationExceptionHandler() {
+			@Override
+			protected ProblemDetailLimits getProblemDetailLimits() {
+				return ProblemDetailLimits.of(2, 100, 100);
+			}
+		};
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_BAD_REQUEST);
+
+		Map<String, String> violations = new LinkedHashMap<>();
+		violations.put("items[7].email", "must be a well-formed email address");
+		Map<String, Object> properties = ((ProblemDetail) testException(new BulkValidationException(violations, true))
+				.getBody()).getProperties();
+		assertEquals(2, properties.size());
+		assertEquals(Boolean.TRUE, properties.get(ProblemDetailLimits.TRUNCATED));
+
+		// o marcador ocupa uma das entradas do limite, como omittedProperties
+		this.servletResponse = new MockHttpServletResponse();
+		this.request = new ServletWebRequest(this.servletRequest, this.servletResponse);
+		this.servletResponse.sendError(HttpServletResponse.SC_BAD_REQUEST);
+		violations.put("items[8].email", "must be a well-formed email address");
+		violations.put("items[9].email", "must be a well-formed email address");
+		properties = ((ProblemDetail) testException(new BulkValidationException(violations, true)).getBody())
+				.getProperties();
+		assertEquals(2, properties.size());
+		assertEquals(3, properties.get(ProblemDetailLimits.OMITTED_PROPERTIES));
+		assertEquals(Boolean.TRUE, properties.get(ProblemDetailLimits.TRUNCATED));
+
+		this.servletResponse = new MockHttpServletResponse();
+		this.request = new ServletWebRequest(this.servletRequest, this.servletResponse);
+		this.servletResponse.sendError(HttpServletResponse.SC_BAD_REQUEST);
+		properties = ((ProblemDetail) testException(new BulkValidationException(violations, false)).getBody())
+				.getProperties();
+		assertNull(properties.get(ProblemDetailLimits.TRUNCATED));
+	}
+
+	@Test
+	public void shouldBoundThePropertiesAndTheDetail() throws Exception {
+		this.exceptionHandlerSupport = new ApplicationExceptionHandler() {
+			@Override
+			protected ProblemDetailLimits getProblemDetailLimits() {
+				return ProblemDetailLimits.of(2, 10, 20);
+			}
+		};
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_BAD_REQUEST);
+
+		Map<String, String> violations = new LinkedHashMap<>();
+		for (int i = 0; i < 5; i++) {
+			violations.put("items[" + i + "]", "must be a well-formed email address");
+		}
+		Exception ex = new BulkValidationException(violations, false);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		ProblemDetail problemDetail = (ProblemDetail) responseEntity.getBody();
+		assertEquals(2, problemDetail.getProperties().size());
+		assertEquals("must be...", problemDetail.getProperties().get("items[0]"));
+		assertEquals(4, problemDetail.getProperties().get(ProblemDetailLimits.OMITTED_PROPERTIES));
+		assertEquals(20, problemDetail.getDetail().length());
+	}
+
+	@Test
+	public void shouldKeepTruncatedKeysApart() throws Exception {
+		this.exceptionHandlerSupport = new ApplicationExceptionHandler() {
+			@Override
+			protected ProblemDetailLimits getProblemDetailLimits() {
+				return ProblemDetailLimits.of(10, 10, 100);
+			}
+		};
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_BAD_REQUEST);
+
+		Map<String, String> violations = new LinkedHashMap<>();
+		violations.put("customer.address.street", "blank");
+		violations.put("customer.address.number", "negative");
+		Exception ex = new BulkValidationException(violations, false);
+
+		Map<String, Object> properties = ((ProblemDetail) testException(ex).getBody()).getProperties();
+		assertEquals(2, properties.size());
+		assertEquals("blank", properties.get("custome..."));
+		assertEquals("negative", properties.get("custome.~2"));
+	}
+
+	@Test
+	public void whenNoSuchElementException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
+
+		Exception ex = new NoSuchElementException("a busca retornou vázio");
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
+	}
+	
+	@Test
+	public void whenNoHandlerFoundException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
+		HttpHeaders hearders = new HttpHeaders();
+
+		Exception ex = new NoHandlerFoundException("GET", "/hostcheck", hearders);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
+	}
+	
+	@Test
+	public void shouldReuseTheSerializedBodyOfRepeatedErrors() throws Exception {
+		ProblemDetailCache cache = new ProblemDetailCache(objectMapper, Duration.ofMinutes(1), 16);
+		this.exceptionHandlerSupport = new ApplicationExceptionHandler() {
+			@Override
+			protected ProblemDetailCache getProblemDetailCache() {
+				return cache;
+			}
+		};
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
+
+		Exception ex = new NoHandlerFoundException("GET", "/hostcheck", new HttpHeaders());
+
+		ResponseEntity<Object> first = testException(ex);
+		ResponseEntity<Object> second = testException(ex);
+		assertSame(first.getBody(), second.getBody());
+		assertEquals(ProblemDetailCache.APPLICATION_PROBLEM_JSON, second.getHeaders().getContentType());
+		assertEquals(404, objectMapper.readTree((byte[]) second.getBody()).get("status").asInt());
+	}
+
+	@Test
+	public void shouldLearnRoutesWithoutHandler() throws Exception {
+		NegativeRouteCache cache = new NegativeRouteCache(objectMapper, Duration.ofMinutes(1), 16);
+		this.exceptionHandlerSupport = new ApplicationExceptionHandler() {
+			@Override
+			protected NegativeRouteCache getNegativeRouteCache() {
+				return cache;
+			}
+		};
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
+		((MockHttpServletRequest) this.servletRequest).setRequestURI("/wp-login.php;jsessionid=1");
+
+		testException(new NoHandlerFoundException("GET", "/wp-login.php;jsessionid=1", new HttpHeaders()));
+
+		NegativeRouteCache.Response cached = cache.lookup("GET", "/wp-login.php", Collections.emptyList());
+		assertNotNull(cached);
+		JsonNode body = objectMapper.readTree(cached.getBody());
+		assertEquals(404, body.get("status").asInt());
+		assertEquals("/wp-login.php", body.get("instance").asText());
+		assertEquals("Resource /wp-login.php not found", body.get("detail").asText());
+		assertNull(cache.lookup("POST", "/wp-login.php", Collections.emptyList()));
+		assertNull(cache.lookup("GET", "/wp-login.php/", Collections.emptyList()));
+	}
+
+	@Test
+	public void shouldNotLearnRoutesWithTheTraceIdInTheBody() throws Exception {
+		NegativeRouteCache cache = new NegativeRouteCache(objectMapper, Duration.ofMinutes(1), 16);
+		this.exceptionHandlerSupport = new ApplicationExceptionHandler() {
+			@Override
+			protected NegativeRouteCache getNegativeRouteCache() {
+				return cache;
+			}
+
+			@Override
+			protected boolean isTraceIdInProperties() {
+				return true;
+			}
+		};
+		TraceContext.start(null);
+
+		this.exceptionHandlerSupport.handlerResourcesException(
+				new NoHandlerFoundException("GET", "/products", new HttpHeaders()), this.request);
+
+		assertNull(cache.lookup("GET", "/products", Collections.emptyList()));
+	}
+
+	@Test
+	public void shouldNotCacheBodiesWithProperties() throws Exception {
+		ProblemDetailCache cache = new ProblemDetailCache(objectMapper, Duration.ofMinutes(1), 16);
+		ProblemDetail problemDetail = ProblemDetail.builder(ProblemType.NOT_FOUND.getUri(), HttpStatus.NOT_FOUND)
+				.properties(new LinkedHashMap<>());
+
+		assertNull(cache.get(problemDetail));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void shouldAnswerInCborWhenAccepted() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
+		((MockHttpServletRequest) this.servletRequest).addHeader(HttpHeaders.ACCEPT, "application/cbor");
+
+		Exception ex = new NoSuchElementException("a busca retornou vázio");
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(ProblemDetailCodec.APPLICATION_CBOR, responseEntity.getHeaders().getContentType());
+		ProblemDetail problemDetail = new ProblemDetailCodec().decode((byte[]) responseEntity.getBody(),
+				responseEntity.getHeaders().getContentType());
+		assertEquals("a busca retornou vázio", problemDetail.getDetail());
+	}
+
+	@Test
+	public void shouldListCborAsSupportedMediaType() throws Exception {
+		List<MediaType> acceptable = Arrays.asList(MediaType.APPLICATION_JSON);
+		Exception ex = new HttpMediaTypeNotAcceptableException(acceptable);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		ProblemDetail problemDetail = (ProblemDetail) responseEntity.getBody();
+		assertEquals("Could not find acceptable representation. Supports: application/json, application/cbor",
+				problemDetail.getDetail());
+	}
+
+	@Test
+	public void whenConcurrencyLimitExceededException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+		Exception ex = new ConcurrencyLimitExceededException(100, HttpStatus.SERVICE_UNAVAILABLE, 3);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+		assertEquals("3", responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+	}
+
+	@Test
+	public void whenDatabaseUnavailableException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+		Exception ex = new DatabaseUnavailableException(30);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+		assertEquals("30", responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+	}
+
+	@Test
+	public void whenIdempotencyKeyConflictException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value());
+
+		Exception ex = new IdempotencyKeyConflictException("Idempotency-Key already used with a different payload",
+				HttpStatus.UNPROCESSABLE_ENTITY);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, responseEntity.getStatusCode());
+	}
+
+	@Test
+	public void whenDataAccessContentionException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+		Exception ex = new DataAccessContentionException(3, 2, new CannotAcquireLockException("lock wait timeout"));
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+		assertEquals("2", responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		assertEquals(ProblemType.DATA_ACCESS_CONTENTION.getUri(), ((ProblemDetail) responseEntity.getBody()).getType());
+	}
+
+	@Test
+	public void whenCannotAcquireLockException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+		Exception ex = new CannotAcquireLockException("lock wait timeout");
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+		assertEquals("1", responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		assertEquals(ProblemType.DATA_ACCESS_CONTENTION.getUri(), ((ProblemDetail) responseEntity.getBody()).getType());
+	}
+
+	@Test
+	public void whenQueryTimeoutException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+
+		Exception ex = new QueryTimeoutException("select * from product");
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.GATEWAY_TIMEOUT, responseEntity.getStatusCode());
+		assertEquals(ProblemType.DEADLINE_EXCEEDED.getUri(), ((ProblemDetail) responseEntity.getBody()).getType());
+	}
+
+	@Test
+	public void whenRequestDeadlineExceededException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+
+		Exception ex = new RequestDeadlineExceededException("Request deadline exceeded before findAll");
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.GATEWAY_TIMEOUT, responseEntity.getStatusCode());
+		assertEquals(ProblemType.DEADLINE_EXCEEDED.getUri(), ((ProblemDetail) responseEntity.getBody()).getType());
+	}
+
+	@Test
+	public void whenTransactionTimedOutException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+
+		Exception ex = new TransactionTimedOutException("Transaction timed out");
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.GATEWAY_TIMEOUT, responseEntity.getStatusCode());
+	}
+
+	@Test
+	public void whenVersionConflictException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_CONFLICT);
+
+		Exception ex = new VersionConflictException("Product", 42L, 7L,
+				new OptimisticLockingFailureException("Row was updated or deleted by another transaction"));
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+		assertEquals("\"7\"", responseEntity.getHeaders().getETag());
+		ProblemDetail body = (ProblemDetail) responseEntity.getBody();
+		assertEquals(ProblemType.VERSION_CONFLICT.getUri(), body.getType());
+		assertEquals("Product", body.getProperties().get("entity"));
+		assertEquals("42", body.getProperties().get("id"));
+		assertEquals("7", body.getProperties().get("version"));
+	}
+
+	@Test
+	public void shouldNotSendTimestampVersionsAsETag() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_CONFLICT);
+		Timestamp version = Timestamp.valueOf("2026-10-19 10:15:30.5");
+
+		Exception ex = new VersionConflictException("Product", 42L, version, null);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertNull(responseEntity.getHeaders().getETag());
+		assertEquals(version.toString(), ((ProblemDetail) responseEntity.getBody()).getProperties().get("version"));
+	}
+
+	@Test
+	public void whenOptimisticLockingFailureException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_CONFLICT);
+
+		Exception ex = new OptimisticLockingFailureException("Row was updated or deleted by another transaction");
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+		assertEquals(ProblemType.VERSION_CONFLICT.getUri(), ((ProblemDetail) responseEntity.getBody()).getType());
+		assertNull(responseEntity.getHeaders().getETag());
+	}
+
+	@Test
+	public void shouldAddTheTraceIdToTheProblemDetail() throws Exception {
+		this.exceptionHandlerSupport = new ApplicationExceptionHandler() {
+			@Override
+			protected boolean isTraceIdInProperties() {
+				return true;
+			}
+		};
+		TraceContext.start("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpStatus.CONFLICT.value());
+
+		Exception ex = new VersionConflictException("Product", 42L, 7L, null);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		ProblemDetail body = (ProblemDetail) responseEntity.getBody();
+		assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", body.getProperties().get(ResourcesExceptionHandler.TRACE_ID_PROPERTY));
+		assertEquals("42", body.getProperties().get("id"));
+		assertEquals("4bf92f3577b34da6a3ce929d0e0e4736",
+				responseEntity.getHeaders().getFirst(ResourcesExceptionHandler.TRACE_ID_HEADER));
+		assertEquals("\"7\"", responseEntity.getHeaders().getETag());
+	}
+
+	@Test
+	public void shouldSendTheTraceIdOnlyInTheHeaderByDefault() throws Exception {
+		ProblemDetailCache cache = new ProblemDetailCache(objectMapper, Duration.ofMinutes(1), 16);
+		this.exceptionHandlerSupport = new ApplicationExceptionHandler() {
+			@Override
+			protected ProblemDetailCache getProblemDetailCache() {
+				return cache;
+			}
+		};
+		TraceContext.start("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
+
+		ResponseEntity<Object> responseEntity = testException(new NoSuchElementException("Product 42"));
+
+		assertEquals("4bf92f3577b34da6a3ce929d0e0e4736",
+				responseEntity.getHeaders().getFirst(ResourcesExceptionHandler.TRACE_ID_HEADER));
+		assertFalse(objectMapper.readTree((byte[]) responseEntity.getBody())
+				.has(ResourcesExceptionHandler.TRACE_ID_PROPERTY));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void shouldKeepTheTraceIdWithinTheLimits() throws Exception {
+		this.exceptionHandlerSupport = new ApplicationExceptionHandler() {
+			@Override
+			protected ProblemDetailLimits getProblemDetailLimits() {
+				return ProblemDetailLimits.of(2, 10, 100);
+			}
+
+			@Override
+			protected boolean isTraceIdInProperties() {
+				return true;
+			}
+		};
+		TraceContext.start("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_BAD_REQUEST);
+
+		Map<String, String> violations = new LinkedHashMap<>();
+		violations.put("name", "blank");
+		Map<String, Object> properties = ((ProblemDetail) testException(
+				new BulkValidationException(violations, false)).getBody()).getProperties();
+		assertEquals(2, properties.size());
+		assertEquals("blank", properties.get("name"));
+		assertEquals("4bf92f3...", properties.get(ResourcesExceptionHandler.TRACE_ID_PROPERTY));
+
+		this.servletResponse = new MockHttpServletResponse();
+		this.request = new ServletWebRequest(this.servletRequest, this.servletResponse);
+		this.servletResponse.sendError(HttpServletResponse.SC_BAD_REQUEST);
+		violations.put("email", "invalid");
+		violations.put("phone", "invalid");
+		properties = ((ProblemDetail) testException(new BulkValidationException(violations, false)).getBody())
+				.getProperties();
+		assertEquals(2, properties.size());
+		assertEquals("blank", properties.get("name"));
+		assertEquals(3, properties.get(ProblemDetailLimits.OMITTED_PROPERTIES));
+	}
+
+	@Test
+	public void shouldNotAddTheTraceIdWithoutTraceContext() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
+
+		ResponseEntity<Object> responseEntity = testException(new NoSuchElementException("Product 42"));
+
+		assertNull(((ProblemDetail) responseEntity.getBody()).getProperties());
+		assertNull(responseEntity.getHeaders().getFirst(ResourcesExceptionHandler.TRACE_ID_HEADER));
+	}
+
+	@Test
+	public void shouldLocalizeTheDetail() throws Exception {
+		ProblemMessages messages = new ProblemMessages("problem-messages", new Locale("pt", "BR"));
+		this.exceptionHandlerSupport = new ApplicationExceptionHandler() {
+			@Override
+			protected ProblemMessages getProblemMessages() {
+				return messages;
+			}
+		};
+		((MockHttpServletRequest) this.servletRequest).addPreferredLocale(new Locale("pt", "BR"));
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
+
+		Exception ex = new NoHandlerFoundException("GET", "/hostcheck", new HttpHeaders());
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		ProblemDetail problemDetail = (ProblemDetail) responseEntity.getBody();
+		assertEquals("Recurso não encontrado", problemDetail.getDetail());
+	}
+
+	@Test
+	public void whenUnhandledException() throws Exception {
+		// expected response, because the exception is not in DefaultHandlerExceptionResolver
+		this.servletResponse.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+
+		ResponseEntity<Object> responseEntity = testException(new Exception("Erro interno no servidor"));
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
+	}
+
+	@Test
+	public void whenHttpMediaTypeNotSupportedNotInformed() throws Exception {
+		List<MediaType> acceptable = new ArrayList<>();
+		Exception ex = new HttpMediaTypeNotSupportedException(MediaType.APPLICATION_XML, acceptable);
+
+		ResponseEntity<Object> responseEntity = testException(ex);
+		assertEquals(acceptable, responseEntity.getHeaders().getAccept());
+		assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, responseEntity.getStatusCode());
+	}
+}
@@ -0,0 +1,272 @@
+package com.dms.useful.idempotency;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import com.dms.useful.exception.IdempotencyKeyConflictException;
+
+public class IdempotencyKeyFilterTest {
+
+	private final AtomicInteger executions = new AtomicInteger();
+
+	private Exception resolved;
+
+	private final HandlerExceptionResolver resolver = (request, response, handler, ex) -> {
+		this.resolved = ex;
+		response.setStatus(((IdempotencyKeyConflictException) ex).getStatus().value());
+		return new ModelAndView();
+	};
+
+	private final FilterChain controller = (request, response) -> {
+		this.executions.incrementAndGet();
+		String body = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+		assertEquals("{\"nome\":\"Romeu\"}", body);
+		HttpServletResponse httpResponse = (HttpServletResponse) response;
+		httpResponse.setStatus(HttpServletResponse.SC_CREATED);
+		httpResponse.setHeader("Location", "http://localhost/products/" + this.executions.get());
+	};
+
+	private IdempotencyKeyFilter filter;
+
+	@Before
+	public void setup() {
+		this.filter = new IdempotencyKeyFilter(new IdempotencyStore(), resolver, Duration.ofSeconds(5));
+	}
+
+	private MockHttpServletRequest post(String key, String body) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/products");
+		request.addHeader(IdempotencyKeyFilter.IDEMPOTENCY_KEY, key);
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		return request;
+	}
+
+	@Test
+	public void shouldReplayTheFirstResponse() throws Exception {
+		MockHttpServletResponse first = new MockHttpServletResponse();
+		MockHttpServletResponse replay = new MockHttpServletResponse();
+
+		filter.doFilter(post("abc", "{\"nome\":\"Romeu\"}"), first, controller);
+		filter.doFilter(post("abc", "{\"nome\":\"Romeu\"}"), replay, controller);
+
+		assertEquals(1, executions.get());
+		assertEquals(201, replay.getStatus());
+		assertEquals("http://localhost/products/1", replay.getHeader("Location"));
+	}
+
+	@Test
+	public void shouldRejectADifferentPayload() throws Exception {
+		filter.doFilter(post("abc", "{\"nome\":\"Romeu\"}"), new MockHttpServletResponse(), controller);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(post("abc", "{\"nome\":\"Julieta\"}"), response, controller);
+
+		assertEquals(1, executions.get());
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), response.getStatus());
+		assertTrue(resolved instanceof IdempotencyKeyConflictException);
+	}
+
+	@Test
+	public void shouldExecuteAgainAfterAFailure() throws Exception {
+		FilterChain failing = (request, response) -> ((HttpServletResponse) response).setStatus(500);
+		filter.doFilter(post("abc", "{\"nome\":\"Romeu\"}"), new MockHttpServletResponse(), failing);
+
+		filter.doFilter(post("abc", "{\"nome\":\"Romeu\"}"), new MockHttpServletResponse(), controller);
+
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	public void shouldIgnoreRequestsWithoutKey() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("POST", "/products");
+			request.setContent("{\"nome\":\"Romeu\"}".getBytes(StandardCharsets.UTF_8));
+
+			filter.doFilter(request, new MockHttpServletResponse(), controller);
+		}
+
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	public void shouldScopeTheKeyByPrincipal() throws Exception {
+		MockHttpServletRequest romeu = post("abc", "{\"nome\":\"Romeu\"}");
+		romeu.setUserPrincipal(() -> "romeu");
+		MockHttpServletRequest julieta = post("abc", "{\"nome\":\"Romeu\"}");
+		julieta.setUserPrincipal(() -> "julieta");
+
+		filter.doFilter(romeu, new MockHttpServletResponse(), controller);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(julieta, response, controller);
+
+		assertEquals(2, executions.get());
+		assertEquals("http://localhost/products/2", response.getHeader("Location"));
+	}
+
+	@Test
+	public void shouldRejectABodyOverTheLimit() throws Exception {
+		filter.setMaxBodySize(8);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(post("abc", "{\"nome\":\"Romeu\"}"), response, controller);
+
+		assertEquals(0, executions.get());
+		assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), response.getStatus());
+	}
+
+	@Test
+	public void shouldNotifyTheReadListener() throws Exception {
+		List<String> events = new ArrayList<>();
+		FilterChain async = (request, response) -> request.getInputStream().setReadListener(new ReadListener() {
+			@Override
+			public void onDataAvailable() {
+				events.add("available");
+			}
+
+			@Override
+			public void onAllDataRead() {
+				events.add("all read");
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				events.add("error");
+			}
+		});
+
+		filter.doFilter(post("abc", "{\"nome\":\"Romeu\"}"), new MockHttpServletResponse(), async);
+
+		assertEquals(Arrays.asList("available", "all read"), events);
+	}
+
+	@Test
+	public void shouldEvictExpiredKeysTouchedLater() {
+		AtomicLong now = new AtomicLong();
+		IdempotencyStore store = new IdempotencyStore(100, 1, Duration.ofNanos(100), now::get);
+		store.begin("a", new byte[0]);
+		store.complete("a", new IdempotencyStore.IdempotentResponse(201, null));
+		now.set(10);
+		store.begin("b", new byte[0]);
+		now.set(20);
+		assertNotNull(store.begin("a", new byte[0]));
+
+		now.set(105);
+		store.begin("c", new byte[0]);
+
+		// "a" expirou, apesar de acessada depois de "b"
+		assertEquals(2, store.size());
+	}
+
+	@Test
+	public void shouldNeverEvictKeysInProgress() {
+		IdempotencyStore store = new IdempotencyStore(2, 1, Duration.ofHours(1));
+		store.begin("a", new byte[0]);
+		store.begin("b", new byte[0]);
+
+		try {
+			store.begin("c", new byte[0]);
+			fail("The store is full of keys in progress");
+		} catch (IdempotencyKeyConflictException e) {
+			assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+		}
+
+		store.complete("a", new IdempotencyStore.IdempotentResponse(201, null));
+		assertNull(store.begin("c", new byte[0]));
+		assertNotNull(store.begin("b", new byte[0]));
+		assertEquals(2, store.size());
+	}
+
+	@Test
+	public void shouldRecordTheResponseOfAsyncRequestsWhenTheyComplete() throws Exception {
+		MockHttpServletRequest request = post("abc", "{\"nome\":\"Romeu\"}");
+		request.setAsyncSupported(true);
+		MockHttpServletResponse first = new MockHttpServletResponse();
+		FilterChain async = (req, res) -> {
+			String body = StreamUtils.copyToString(req.getInputStream(), StandardCharsets.UTF_8);
+			assertEquals("{\"nome\":\"Romeu\"}", body);
+			req.startAsync();
+		};
+
+		filter.doFilter(request, first, async);
+		// a conclusão assíncrona define a resposta final
+		first.setStatus(HttpServletResponse.SC_CREATED);
+		first.setHeader("Location", "http://localhost/products/1");
+		request.getAsyncContext().complete();
+
+		MockHttpServletResponse replay = new MockHttpServletResponse();
+		filter.doFilter(post("abc", "{\"nome\":\"Romeu\"}"), replay, controller);
+
+		assertEquals(0, executions.get());
+		assertEquals(201, replay.getStatus());
+		assertEquals("http://localhost/products/1", replay.getHeader("Location"));
+	}
+
+	@Test
+	public void shouldMakeConcurrentDuplicatesWait() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		FilterChain slow = (request, response) -> {
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			controller.doFilter(request, response);
+		};
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> first = executor.submit(() -> {
+				filter.doFilter(post("abc", "{\"nome\":\"Romeu\"}"), new MockHttpServletResponse(), slow);
+				return null;
+			});
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			MockHttpServletResponse duplicate = new MockHttpServletResponse();
+			Thread releaser = new Thread(() -> {
+				sleep();
+				release.countDown();
+			});
+			releaser.start();
+			filter.doFilter(post("abc", "{\"nome\":\"Romeu\"}"), duplicate, controller);
+			first.get(5, TimeUnit.SECONDS);
+
+			assertEquals(1, executions.get());
+			assertEquals(201, duplicate.getStatus());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void sleep() {
+		try {
+			Thread.sleep(100);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
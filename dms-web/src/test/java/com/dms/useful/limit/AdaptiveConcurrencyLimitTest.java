@@ -0,0 +1,61 @@
+package com.dms.useful.limit;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+	@Test
+	public void shouldRejectOverTheLimit() throws Exception {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, Duration.ofSeconds(1));
+
+		assertTrue(limit.tryAcquire());
+		assertTrue(limit.tryAcquire());
+		assertFalse(limit.tryAcquire());
+		assertEquals(2, limit.getInFlight());
+	}
+
+	@Test
+	public void shouldIncreaseTheLimitWhenFast() throws Exception {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, Duration.ofSeconds(1));
+
+		for (int i = 0; i < 100; i++) {
+			limit.tryAcquire();
+			limit.release(FAST);
+		}
+
+		assertTrue(limit.getLimit() > 10);
+		assertEquals(0, limit.getInFlight());
+	}
+
+	@Test
+	public void shouldDecreaseTheLimitWhenSlow() throws Exception {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 100, Duration.ofSeconds(1));
+
+		for (int i = 0; i < 100; i++) {
+			limit.tryAcquire();
+			limit.release(SLOW);
+		}
+
+		assertEquals(5, limit.getLimit());
+	}
+
+	@Test
+	public void shouldComputeRetryAfterFromTheMeanLatency() throws Exception {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 100, Duration.ofSeconds(5));
+
+		assertEquals(1, limit.getRetryAfterSeconds());
+
+		limit.tryAcquire();
+		limit.release(TimeUnit.SECONDS.toNanos(3));
+
+		assertEquals(3, limit.getRetryAfterSeconds());
+	}
+}
@@ -0,0 +1,86 @@
+package com.dms.useful.limit;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+
+import javax.servlet.FilterChain;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import com.dms.useful.exception.ConcurrencyLimitExceededException;
+
+public class ConcurrencyLimitFilterTest {
+
+	private Exception resolved;
+
+	private final HandlerExceptionResolver resolver = (request, response, handler, ex) -> {
+		this.resolved = ex;
+		return new ModelAndView();
+	};
+
+	@Test
+	public void shouldLetTheRequestThroughUnderTheLimit() throws Exception {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(1));
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit, resolver);
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(), chain);
+
+		assertNotNull(chain.getRequest());
+		assertNull(resolved);
+		assertEquals(0, limit.getInFlight());
+	}
+
+	@Test
+	public void shouldHoldTheSlotUntilTheAsyncRequestCompletes() throws Exception {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(1));
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit, resolver);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+		request.setAsyncSupported(true);
+		FilterChain chain = (req, res) -> req.startAsync();
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertEquals(1, limit.getInFlight());
+		FilterChain rejected = (req, res) -> fail("Request should be rejected");
+		filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(), rejected);
+		assertTrue(resolved instanceof ConcurrencyLimitExceededException);
+
+		request.getAsyncContext().complete();
+
+		assertEquals(0, limit.getInFlight());
+	}
+
+	@Test
+	public void shouldRejectThroughTheExceptionResolver() throws Exception {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(1));
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit, resolver, HttpStatus.TOO_MANY_REQUESTS);
+		limit.tryAcquire();
+		FilterChain chain = (request, response) -> fail("Request should be rejected");
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(), chain);
+
+		assertTrue(resolved instanceof ConcurrencyLimitExceededException);
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, ((ConcurrencyLimitExceededException) resolved).getStatus());
+	}
+
+	@Test
+	public void shouldSendErrorWhenNotResolved() throws Exception {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(1));
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit, (request, response, handler, ex) -> null);
+		limit.tryAcquire();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/products"), response, new MockFilterChain());
+
+		assertEquals(503, response.getStatus());
+		assertEquals("1", response.getHeader("Retry-After"));
+	}
+}
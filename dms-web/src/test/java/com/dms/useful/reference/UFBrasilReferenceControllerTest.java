@@ -0,0 +1,78 @@
+package com.dms.useful.reference;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class UFBrasilReferenceControllerTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final UFBrasilReferenceController controller = new UFBrasilReferenceController(objectMapper,
+			Duration.ofDays(1));
+
+	@Test
+	public void shouldGroupTheUfsByRegion() throws Exception {
+		ResponseEntity<byte[]> response = controller.ufs(null, null);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		Map<String, List<Map<String, Object>>> regions = objectMapper.readValue(response.getBody(),
+				new TypeReference<Map<String, List<Map<String, Object>>>>() {
+				});
+		assertEquals(List.of("NORTE", "SUL", "NORDESTE", "SUDESTE", "CENTRO_OESTE"), List.copyOf(regions.keySet()));
+		assertEquals(27, regions.values().stream().mapToInt(List::size).sum());
+		Map<String, Object> pe = regions.get("NORDESTE").stream().filter(uf -> uf.get("sigla").equals("PE"))
+				.findFirst().get();
+		assertEquals("Recife", pe.get("capital"));
+		assertEquals("max-age=86400, public, immutable", response.getHeaders().getCacheControl());
+		assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	@Test
+	public void shouldServeTheSameBytesOnEveryRequest() {
+		assertSame(controller.ufs(null, null).getBody(), controller.ufs(null, null).getBody());
+	}
+
+	@Test
+	public void shouldGzipWhenAccepted() throws Exception {
+		byte[] json = controller.ufs(null, null).getBody();
+		ResponseEntity<byte[]> response = controller.ufs(null, "br, gzip;q=0.8");
+
+		assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertNotEquals(controller.ufs(null, null).getHeaders().getETag(), response.getHeaders().getETag());
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+			assertArrayEquals(json, in.readAllBytes());
+		}
+	}
+
+	@Test
+	public void shouldAnswerNotModifiedForTheETag() {
+		String etag = controller.ufs(null, null).getHeaders().getETag();
+
+		ResponseEntity<byte[]> response = controller.ufs("\"other\", W/" + etag, null);
+
+		assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		assertNull(response.getBody());
+		assertEquals(etag, response.getHeaders().getETag());
+		assertEquals(HttpStatus.OK, controller.ufs("\"other\"", null).getStatusCode());
+	}
+
+	@Test
+	public void shouldHonourTheQualityOfGzip() {
+		assertTrue(UFBrasilReferenceController.acceptsGzip("gzip, deflate"));
+		assertTrue(UFBrasilReferenceController.acceptsGzip("*"));
+		assertFalse(UFBrasilReferenceController.acceptsGzip("gzip;q=0"));
+		assertFalse(UFBrasilReferenceController.acceptsGzip("identity"));
+	}
+}
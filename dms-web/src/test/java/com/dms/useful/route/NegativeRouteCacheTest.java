@@ -0,0 +1,168 @@
+package com.dms.useful.route;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.FilterChain;
+
+import org.junit.Test;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.dms.useful.exception.handler.ProblemDetail;
+import com.dms.useful.exception.handler.ProblemType;
+import com.dms.useful.exception.handler.ResourcesExceptionHandler;
+import com.dms.useful.trace.TraceContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class NegativeRouteCacheTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicLong clock = new AtomicLong();
+	private final NegativeRouteCache cache = new NegativeRouteCache(objectMapper, Duration.ofSeconds(10), 2,
+			clock::get);
+
+	private ProblemDetail notFound(String path) {
+		return ProblemDetail.builder(ProblemType.NOT_FOUND.getUri(), HttpStatus.NOT_FOUND)
+				.detail(String.format("Resource %s not found", path));
+	}
+
+	private void learn(String path) {
+		cache.learn("GET", path, null, notFound(path));
+	}
+
+	private NegativeRouteCache.Response lookup(String path) {
+		return cache.lookup("GET", path, Collections.emptyList());
+	}
+
+	@Test
+	public void shouldKeyOnTheExactLookupPath() {
+		learn("/admin/login/");
+
+		assertNotNull(lookup("/admin/login/"));
+		assertNull(lookup("/admin/login"));
+		assertEquals("/admin/login", NegativeRouteCache.lookupPath(new MockHttpServletRequest("GET", "/admin/login;jsessionid=1")));
+	}
+
+	@Test
+	public void shouldKeepOneBodyPerContentType() {
+		MediaType cbor = MediaType.valueOf("application/cbor");
+		learn("/.env");
+		cache.learn("GET", "/.env", cbor, new byte[] { 1 });
+
+		assertEquals(cbor, cache.lookup("GET", "/.env", Arrays.asList(cbor, MediaType.ALL)).getContentType());
+		assertEquals("application/problem+json", lookup("/.env").getContentType().toString());
+		assertNull(cache.lookup("GET", "/.env", Collections.singletonList(MediaType.TEXT_HTML)));
+	}
+
+	@Test
+	public void shouldAnswerApplicationJsonWithTheProblemBody() throws Exception {
+		learn("/.env");
+		NegativeRouteFilter filter = new NegativeRouteFilter(cache);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/.env");
+		request.addHeader("Accept", "application/json");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain chain = (req, res) -> fail("Request should be answered by the filter");
+
+		filter.doFilter(request, response, chain);
+
+		assertEquals(404, response.getStatus());
+		assertEquals("application/json", response.getContentType());
+		assertEquals("Resource /.env not found", objectMapper.readTree(response.getContentAsByteArray()).get("detail").asText());
+		assertEquals(MediaType.APPLICATION_JSON, cache.lookup("GET", "/.env",
+				Arrays.asList(MediaType.APPLICATION_JSON, MediaType.ALL)).getContentType());
+	}
+
+	@Test
+	public void shouldForgetThePathAfterTheTtl() {
+		learn("/.env");
+		assertNotNull(lookup("/.env"));
+
+		clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+		assertNull(lookup("/.env"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void shouldNotGrowBeyondTheLimit() {
+		learn("/a");
+		learn("/b");
+		learn("/c");
+		assertEquals(2, cache.size());
+		assertNull(lookup("/c"));
+
+		clock.addAndGet(Duration.ofSeconds(10).toNanos());
+		learn("/c");
+
+		assertEquals(1, cache.size());
+		assertNotNull(lookup("/c"));
+	}
+
+	@Test
+	public void shouldInvalidateWhenTheContextIsRefreshed() {
+		learn("/a");
+
+		cache.onApplicationEvent(new ContextRefreshedEvent(new StaticApplicationContext()));
+
+		assertNull(lookup("/a"));
+	}
+
+	@Test
+	public void shouldAnswerKnownPathsBeforeTheChain() throws Exception {
+		learn("/.env");
+		NegativeRouteFilter filter = new NegativeRouteFilter(cache);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain chain = (request, res) -> fail("Request should be answered by the filter");
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/.env"), response, chain);
+
+		assertEquals(404, response.getStatus());
+		assertEquals("application/problem+json", response.getContentType());
+		assertEquals("Resource /.env not found", objectMapper.readTree(response.getContentAsByteArray()).get("detail").asText());
+	}
+
+	@Test
+	public void shouldSendTheTraceIdOfTheRequest() throws Exception {
+		learn("/.env");
+		NegativeRouteFilter filter = new NegativeRouteFilter(cache);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain chain = (request, res) -> fail("Request should be answered by the filter");
+
+		TraceContext.start("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+		try {
+			filter.doFilter(new MockHttpServletRequest("GET", "/.env"), response, chain);
+		} finally {
+			TraceContext.clear();
+		}
+
+		assertEquals(404, response.getStatus());
+		assertEquals("4bf92f3577b34da6a3ce929d0e0e4736",
+				response.getHeader(ResourcesExceptionHandler.TRACE_ID_HEADER));
+	}
+
+	@Test
+	public void shouldLetUnknownPathsThrough() throws Exception {
+		learn("/.env");
+		NegativeRouteFilter filter = new NegativeRouteFilter(cache);
+		MockFilterChain chain = new MockFilterChain();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/.env");
+		request.addHeader("Accept", "text/html");
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(), chain);
+		assertNotNull(chain.getRequest());
+
+		chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		assertNotNull(chain.getRequest());
+	}
+}
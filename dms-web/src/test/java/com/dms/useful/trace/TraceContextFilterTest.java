@@ -0,0 +1,35 @@
+package com.dms.useful.trace;
+
+import static org.junit.Assert.*;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServlet;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class TraceContextFilterTest {
+
+	@Test
+	public void shouldStartAndClearTheTraceContext() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+		request.addHeader(TraceContextFilter.TRACEPARENT, "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+		String[] traceId = new String[1];
+
+		new TraceContextFilter().doFilter(request, new MockHttpServletResponse(),
+				new MockFilterChain(new HttpServlet() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					public void service(ServletRequest req, ServletResponse res) {
+						traceId[0] = TraceContext.traceId().toString();
+					}
+				}));
+
+		assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", traceId[0]);
+		assertFalse(TraceContext.isActive());
+	}
+}
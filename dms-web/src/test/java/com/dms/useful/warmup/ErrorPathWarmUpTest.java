@@ -0,0 +1,162 @@
+package com.dms.useful.warmup;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.Validation;
+
+import org.junit.Test;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.NoHandlerFoundException;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+
+import com.dms.useful.event.ResourceCreatedEvent;
+import com.dms.useful.event.listener.ResourceCreatedListener;
+import com.dms.useful.exception.handler.ApplicationExceptionHandler;
+import com.dms.useful.exception.handler.Model;
+import com.dms.useful.exception.handler.ProblemDetail;
+import com.dms.useful.exception.handler.ProblemDetailCache;
+import com.dms.useful.exception.handler.ProblemRenderingHttpMessageConverter;
+import com.dms.useful.exception.handler.ProblemType;
+import com.dms.useful.route.NegativeRouteCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+
+public class ErrorPathWarmUpTest {
+
+	private final List<String> locations = new ArrayList<>();
+
+	private ErrorPathWarmUp warmUp(int iterations) {
+		ErrorPathWarmUp warmUp = new ErrorPathWarmUp(new ApplicationExceptionHandler(), iterations);
+		warmUp.setObjectMapper(new ObjectMapper().findAndRegisterModules());
+		warmUp.setValidator(Validation.buildDefaultValidatorFactory().getValidator(), Model.class);
+		warmUp.setResourceCreatedListeners(List.of(new ResourceCreatedListener<Object>() {
+			@Override
+			public void onApplicationEvent(ResourceCreatedEvent<Object> event) {
+				super.onApplicationEvent(event);
+				locations.add(event.getResponse().getHeader("Location"));
+			}
+		}));
+		return warmUp;
+	}
+
+	@Test
+	public void shouldExerciseEveryPathWithoutFailures() {
+		ErrorPathWarmUp warmUp = warmUp(2);
+
+		assertEquals(0, warmUp.warmUp());
+
+		assertNotNull(warmUp.getDuration());
+		assertEquals(List.of("http://localhost/.dms-warm-up/0", "http://localhost/.dms-warm-up/0"), locations);
+	}
+
+	@Test
+	public void shouldGoThroughTheHandlerExceptionResolver() throws Exception {
+		StaticWebApplicationContext context = new StaticWebApplicationContext();
+		context.registerSingleton("applicationExceptionHandler", ApplicationExceptionHandler.class);
+		context.refresh();
+		ExceptionHandlerExceptionResolver resolver = new ExceptionHandlerExceptionResolver();
+		resolver.setApplicationContext(context);
+		resolver.afterPropertiesSet();
+		ErrorPathWarmUp warmUp = warmUp(1);
+		warmUp.setHandlerExceptionResolver(resolver);
+
+		assertEquals(0, warmUp.warmUp());
+	}
+
+	@Test
+	public void shouldRunOnlyOnce() {
+		StaticWebApplicationContext context = new StaticWebApplicationContext();
+		ErrorPathWarmUp warmUp = warmUp(1);
+
+		warmUp.onApplicationEvent(new ContextRefreshedEvent(context));
+		warmUp.onApplicationEvent(new ContextRefreshedEvent(context));
+
+		assertEquals(1, locations.size());
+	}
+
+	@Test
+	public void shouldCoverEveryProblemType() throws Exception {
+		ApplicationExceptionHandler handler = new ApplicationExceptionHandler();
+		Set<ProblemType> problemTypes = EnumSet.noneOf(ProblemType.class);
+		for (Exception ex : ErrorPathWarmUp.exceptions()) {
+			ServletWebRequest request = new ServletWebRequest(WarmUpServlet.request("application/json"),
+					WarmUpServlet.response());
+			ProblemDetail body = (ProblemDetail) handler.handlerResourcesException(ex, request).getBody();
+			problemTypes.add(ProblemType.fromUri(body.getType()));
+		}
+
+		assertEquals(EnumSet.allOf(ProblemType.class), problemTypes);
+	}
+
+	@Test
+	public void shouldLeaveNoProductionState() throws Exception {
+		ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+		NegativeRouteCache negativeRouteCache = new NegativeRouteCache(objectMapper, Duration.ofMinutes(1), 16);
+		ProblemDetailCache problemDetailCache = new ProblemDetailCache(objectMapper, Duration.ofMinutes(1), 16);
+		AtomicInteger cacheCalls = new AtomicInteger();
+		ApplicationExceptionHandler handler = new ApplicationExceptionHandler() {
+			@Override
+			protected NegativeRouteCache getNegativeRouteCache() {
+				cacheCalls.incrementAndGet();
+				return negativeRouteCache;
+			}
+
+			@Override
+			protected ProblemDetailCache getProblemDetailCache() {
+				cacheCalls.incrementAndGet();
+				return problemDetailCache;
+			}
+		};
+		StaticWebApplicationContext context = new StaticWebApplicationContext();
+		context.getBeanFactory().registerSingleton("applicationExceptionHandler", handler);
+		context.refresh();
+		ExceptionHandlerExceptionResolver resolver = new ExceptionHandlerExceptionResolver();
+		resolver.setApplicationContext(context);
+		resolver.setMessageConverters(List.of(new ProblemRenderingHttpMessageConverter(objectMapper)));
+		resolver.afterPropertiesSet();
+		ErrorPathWarmUp warmUp = new ErrorPathWarmUp(handler);
+		warmUp.setHandlerExceptionResolver(resolver);
+		warmUp.setObjectMapper(objectMapper);
+
+		Path file = Files.createTempFile("warm-up", ".jfr");
+		try (Recording recording = new Recording()) {
+			for (String name : List.of("com.dms.useful.ExceptionHandling", "com.dms.useful.RootCauseResolution",
+					"com.dms.useful.ProblemRendering")) {
+				recording.enable(name).withoutThreshold();
+			}
+			recording.start();
+			assertEquals(0, warmUp.warmUp());
+			recording.stop();
+			recording.dump(file);
+
+			assertTrue(RecordingFile.readAllEvents(file).stream()
+					.noneMatch(event -> event.getEventType().getName().startsWith("com.dms.useful.")));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+		assertEquals(0, cacheCalls.get());
+		assertNull(negativeRouteCache.lookup("GET", WarmUpServlet.PATH, List.of()));
+
+		// fora do warm-up, os caches voltam a ser usados
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/missing");
+		handler.handlerResourcesException(new NoHandlerFoundException("GET", "/missing", new HttpHeaders()),
+				new ServletWebRequest(request, new MockHttpServletResponse()));
+		assertTrue(cacheCalls.get() > 0);
+	}
+}